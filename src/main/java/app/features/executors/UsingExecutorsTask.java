@@ -1,7 +1,12 @@
 package app.features.executors;
 
+import app.patterns.task_execution.BatchSubmitter;
+
+import java.util.ArrayList;
+import java.util.Map;
 import java.util.UUID;
 import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
@@ -32,17 +37,21 @@ import java.util.concurrent.TimeUnit;
 public class UsingExecutorsTask {
 
     private static class TaskScheduler {
+        // one per executor, so the chunk size keeps adapting across batches
+        private final Map<ExecutorService, BatchSubmitter> batchSubmitters = new ConcurrentHashMap<>();
+
         public void runScheduledAnalyticTask(ScheduledExecutorService executor) {
             executor.scheduleAtFixedRate(() -> System.out.println("Running 3s scheduled task"), 0, 3, TimeUnit.SECONDS);
         }
 
         public void runBatchOperation(ExecutorService executor) {
+            var batch = new ArrayList<Runnable>(10);
             for (int i = 0; i < 10; i++) {
-                executor.execute(() -> {
+                batch.add(() -> {
                     System.out.println("Running batch");
                 });
-
             }
+            batchSubmitters.computeIfAbsent(executor, BatchSubmitter::new).executeAll(batch);
         }
 
         public void runAsyncLogging(ExecutorService executor) {
@@ -0,0 +1,81 @@
+package app.features.forkjoin;
+
+import app.patterns.divide_conquer.PrimitiveMergeSort;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+/*
+ * PrimitiveMergeSort against Arrays.parallelSort, Arrays.sort and the boxed
+ * ParallelMergeSort from UsingForkJoinFrameworkTask, on 1M random ints and longs.
+ * Dummy benchmark, run it on your machine.
+ */
+public class MergeSortBenchmark {
+
+    private static final int SIZE = 1_000_000;
+
+    public static void main(String[] args) {
+        var random = new Random(42);
+        var ints = random.ints(SIZE).toArray();
+        var longs = random.longs(SIZE).toArray();
+        List<Integer> boxed = new ArrayList<>(SIZE);
+        for (var value : ints) {
+            boxed.add(value);
+        }
+        var pool = ForkJoinPool.commonPool();
+
+        for (int round = 0; round < 3; round++) {
+            dummyBenchmark("PrimitiveMergeSort int[]", ints, copy -> PrimitiveMergeSort.sort(copy));
+            dummyBenchmark("Arrays.parallelSort int[]", ints, Arrays::parallelSort);
+            dummyBenchmark("Arrays.sort int[]", ints, Arrays::sort);
+            dummyBenchmark("PrimitiveMergeSort long[]", longs, copy -> PrimitiveMergeSort.sort(copy));
+            dummyBenchmark("Arrays.parallelSort long[]", longs, Arrays::parallelSort);
+
+            var before = System.currentTimeMillis();
+            var sorted = pool.invoke(new UsingForkJoinFrameworkTask.ParallelMergeSort(boxed));
+            var after = System.currentTimeMillis();
+            System.out.println("ParallelMergeSort List<Integer>: " + (after - before) + " ms, sorted " + isSorted(sorted));
+            System.out.println("######\n");
+        }
+    }
+
+    private interface IntSort {
+        void sort(int[] values);
+    }
+
+    private interface LongSort {
+        void sort(long[] values);
+    }
+
+    private static void dummyBenchmark(String name, int[] values, IntSort sort) {
+        var copy = values.clone();
+        var before = System.currentTimeMillis();
+        sort.sort(copy);
+        var after = System.currentTimeMillis();
+        var expected = values.clone();
+        Arrays.sort(expected);
+        System.out.println(name + ": " + (after - before) + " ms, sorted " + Arrays.equals(copy, expected));
+    }
+
+    private static void dummyBenchmark(String name, long[] values, LongSort sort) {
+        var copy = values.clone();
+        var before = System.currentTimeMillis();
+        sort.sort(copy);
+        var after = System.currentTimeMillis();
+        var expected = values.clone();
+        Arrays.sort(expected);
+        System.out.println(name + ": " + (after - before) + " ms, sorted " + Arrays.equals(copy, expected));
+    }
+
+    private static boolean isSorted(List<Integer> values) {
+        for (int i = 1; i < values.size(); i++) {
+            if (values.get(i - 1) > values.get(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
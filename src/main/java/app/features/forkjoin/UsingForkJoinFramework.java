@@ -1,5 +1,7 @@
 package app.features.forkjoin;
 
+import app.patterns.divide_conquer.AdaptiveSplitPolicy;
+import app.patterns.divide_conquer.RandomAccessAdapter;
 
 import java.lang.Thread.UncaughtExceptionHandler;
 import java.math.BigInteger;
@@ -143,23 +145,26 @@ public class UsingForkJoinFramework {
     static class RecSumTask extends RecursiveTask<BigInteger> {
 
         private static final long serialVersionUID = 1L;
-        public static final int DIVIDE_AT = 500;
+        private static final AdaptiveSplitPolicy SPLIT = new AdaptiveSplitPolicy(500);
 
         private List<Integer> numbers;
 
+        // a LinkedList is copied once, so subList and size below are O(1)
         public RecSumTask(List<Integer> numbers) {
-            this.numbers = numbers;
+            this.numbers = RandomAccessAdapter.of(numbers);
         }
 
         @Override
         protected BigInteger compute() {
             var subTasks = new LinkedList<RecSumTask>();
-            if (numbers.size() < DIVIDE_AT) {
+            if (!SPLIT.shouldSplit(numbers.size())) {
                 // directly
+                var start = SPLIT.leafStart();
                 var subSum = BigInteger.ZERO;
                 for (Integer number : numbers) {
                     subSum = subSum.add(BigInteger.valueOf(number));
                 }
+                SPLIT.recordLeaf(numbers.size(), start);
                 return subSum;
             } else {
                 // Divide to conquer
@@ -1,5 +1,7 @@
 package app.features.forkjoin;
 
+import app.patterns.divide_conquer.AdaptiveSplitPolicy;
+import app.patterns.divide_conquer.RandomAccessAdapter;
 
 import java.math.BigInteger;
 import java.util.ArrayList;
@@ -187,24 +189,26 @@ public class UsingForkJoinFrameworkTask {
     static class RecSumTask extends RecursiveTask<BigInteger> {
 
         private static final long serialVersionUID = 1L;
-        public static final int DIVIDE_AT = 500;
+        private static final AdaptiveSplitPolicy SPLIT = new AdaptiveSplitPolicy(500);
 
         private final List<Integer> numbers;
         private final AtomicInteger counter;
 
         public RecSumTask(List<Integer> numbers, AtomicInteger counter) {
             this.counter = counter;
-            this.numbers = numbers;
+            this.numbers = RandomAccessAdapter.of(numbers);
         }
 
         @Override
         protected BigInteger compute() {
             var subTasks = new LinkedList<RecSumTask>();
-            if (numbers.size() < DIVIDE_AT) {
+            if (!SPLIT.shouldSplit(numbers.size())) {
+                var start = SPLIT.leafStart();
                 var subSum = BigInteger.ZERO;
                 for (Integer number : numbers) {
                     subSum = subSum.add(BigInteger.valueOf(number));
                 }
+                SPLIT.recordLeaf(numbers.size(), start);
                 return subSum;
             } else {
                 var size = numbers.size();
@@ -234,12 +238,14 @@ public class UsingForkJoinFrameworkTask {
 
     static class RecMaxNumberTask extends RecursiveTask<Integer> {
 
+        private static final AdaptiveSplitPolicy SPLIT = new AdaptiveSplitPolicy(2);
+
         private final List<Integer> numbers;
         private final Integer min;
         private final Integer max;
 
         RecMaxNumberTask(List<Integer> numbers, Integer min, Integer max) {
-            this.numbers = numbers;
+            this.numbers = RandomAccessAdapter.of(numbers);
             this.min = min;
             this.max = max;
         }
@@ -250,11 +256,15 @@ public class UsingForkJoinFrameworkTask {
             if (min < 0 || max >= numbers.size()) {
                 throw new IndexOutOfBoundsException("Invalid range [" + min + "," + max + "]");
             }
-            if (min == max) {
-                return numbers.get(min);
-            }
-            if (max - min <= 1) {
-                return Math.max(numbers.get(min), numbers.get(max));
+            var size = max - min + 1;
+            if (!SPLIT.shouldSplit(size)) {
+                var start = SPLIT.leafStart();
+                int result = numbers.get(min);
+                for (int i = min + 1; i <= max; i++) {
+                    result = Math.max(result, numbers.get(i));
+                }
+                SPLIT.recordLeaf(size, start);
+                return result;
             }
 
             int mid = (min + max) / 2;
@@ -331,7 +341,7 @@ public class UsingForkJoinFrameworkTask {
         private final List<Integer> numbers;
 
         ParallelMergeSort(List<Integer> numbers) {
-            this.numbers = numbers;
+            this.numbers = RandomAccessAdapter.of(numbers);
         }
 
         protected List<Integer> compute() {
@@ -0,0 +1,90 @@
+package app.patterns.divide_conquer;
+
+
+import app.patterns.ThreadSafe;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.TimeUnit;
+
+/*
+ * Pattern: Parallel Divide and Conquer
+ *
+ * Adaptive split threshold
+ *
+ * A fixed THRESHOLD is only right for one input size, one leaf cost and one
+ * core count. This policy decides at each step from what is measured:
+ *
+ * - Leaf size: the EWMA of the measured cost per element sets the minimum leaf
+ *   size, so a leaf takes long enough to pay for its task, and the maximum
+ *   leaf size, so no leaf is big enough to unbalance the pool. The initial leaf
+ *   size only applies until a leaf has been measured; after that leaves grow or
+ *   shrink with the cost, down to a single element when elements are expensive.
+ *   Time only the leaf work itself: a fixed cost timed with it (e.g. walking a
+ *   LinkedList to its offset) inflates the cost per element and shrinks leaves.
+ *
+ * - Between those bounds, split only while the pool is hungry: more than one
+ *   worker and no more than a few surplus tasks queued locally
+ *   (ForkJoinTask.getSurplusQueuedTaskCount). Once thieves have enough to steal,
+ *   the current task runs as a leaf.
+ *
+ * Keep one instance per kind of task, since the leaf cost is per workload.
+ * Usage in compute(): if shouldSplit(size) fork, otherwise time the leaf with
+ * leafStart() and recordLeaf(size, start).
+ */
+@ThreadSafe
+public class AdaptiveSplitPolicy {
+
+    private static final long MIN_LEAF_NANOS = TimeUnit.MICROSECONDS.toNanos(25);
+    private static final long MAX_LEAF_NANOS = TimeUnit.MICROSECONDS.toNanos(500);
+    // surplus queued tasks per worker above which thieves have enough to steal
+    private static final int SURPLUS_LIMIT = 3;
+
+    private final long initialLeafSize;
+    // EWMA of nanoseconds per element, 0 until a leaf is measured; racy updates only lose samples
+    private volatile double elementNanos;
+
+    public AdaptiveSplitPolicy(long initialLeafSize) {
+        if (initialLeafSize <= 0) {
+            throw new IllegalArgumentException("initialLeafSize must be positive");
+        }
+        this.initialLeafSize = initialLeafSize;
+    }
+
+    public boolean shouldSplit(long size) {
+        if (size < 2 || size <= minLeafSize()) {
+            return false;
+        }
+        if (size > maxLeafSize()) {
+            return true;
+        }
+        if (!ForkJoinTask.inForkJoinPool()) {
+            return ForkJoinPool.getCommonPoolParallelism() > 1;
+        }
+        return ForkJoinTask.getPool().getParallelism() > 1
+                && ForkJoinTask.getSurplusQueuedTaskCount() <= SURPLUS_LIMIT;
+    }
+
+    public long leafStart() {
+        return System.nanoTime();
+    }
+
+    public void recordLeaf(long size, long startNanos) {
+        if (size <= 0) {
+            return;
+        }
+        var sample = (double) (System.nanoTime() - startNanos) / size;
+        var current = elementNanos;
+        elementNanos = current == 0 ? sample : current + (sample - current) / 8;
+    }
+
+    public long minLeafSize() {
+        var cost = elementNanos;
+        return cost == 0 ? initialLeafSize : Math.max(1, (long) (MIN_LEAF_NANOS / cost));
+    }
+
+    public long maxLeafSize() {
+        var cost = elementNanos;
+        return cost == 0 ? initialLeafSize : Math.max(1, (long) (MAX_LEAF_NANOS / cost));
+    }
+}
@@ -0,0 +1,43 @@
+package app.patterns.divide_conquer;
+
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.IntConsumer;
+
+/*
+ * Runs a step for every block index in [from, to), halving the range across a
+ * ForkJoinPool. Shared by the blocked algorithms of this package (scan, radix and
+ * sample sort), where the caller already sized the blocks.
+ */
+class BlockRange extends RecursiveAction {
+
+    private static final long serialVersionUID = 1L;
+    private final int from;
+    private final int to;
+    private final IntConsumer step;
+
+    private BlockRange(int from, int to, IntConsumer step) {
+        this.from = from;
+        this.to = to;
+        this.step = step;
+    }
+
+    static void forEach(ForkJoinPool pool, int blocks, IntConsumer step) {
+        if (blocks == 1) {
+            step.accept(0);
+        } else if (blocks > 1) {
+            pool.invoke(new BlockRange(0, blocks, step));
+        }
+    }
+
+    @Override
+    protected void compute() {
+        if (to - from == 1) {
+            step.accept(from);
+            return;
+        }
+        var mid = (from + to) >>> 1;
+        invokeAll(new BlockRange(from, mid, step), new BlockRange(mid, to, step));
+    }
+}
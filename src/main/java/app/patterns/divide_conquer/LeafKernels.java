@@ -0,0 +1,97 @@
+package app.patterns.divide_conquer;
+
+
+/*
+ * Pattern: Parallel Divide and Conquer
+ *
+ * Leaf kernels
+ *
+ * Sum, min, max and count of the elements matching a comparison, over a range
+ * [from, to) of an int[], long[] or double[]: the loops at the leaves of the
+ * reductions. best() returns the SIMD kernels, written with the Vector API,
+ * when the jdk.incubator.vector module is in the boot layer (run with
+ * --add-modules jdk.incubator.vector), and the scalar ones otherwise. The
+ * vector class is only loaded in the first case, so the fallback runs on a JVM
+ * without the module.
+ *
+ * Results are the same for both, int and long sums wrapping on overflow as
+ * usual, except for double sums, which the vector kernels add in a different
+ * order and can round differently. Min and max of an empty range are the
+ * identity of the operation (e.g. Integer.MAX_VALUE for min), and a NaN makes
+ * a double min or max NaN, as with Math.min and Math.max.
+ */
+public abstract class LeafKernels {
+
+    private static final LeafKernels BEST = load();
+
+    public enum Comparison {
+        LT, LE, GT, GE, EQ, NE;
+
+        public boolean test(long value, long operand) {
+            return switch (this) {
+                case LT -> value < operand;
+                case LE -> value <= operand;
+                case GT -> value > operand;
+                case GE -> value >= operand;
+                case EQ -> value == operand;
+                case NE -> value != operand;
+            };
+        }
+
+        public boolean test(double value, double operand) {
+            return switch (this) {
+                case LT -> value < operand;
+                case LE -> value <= operand;
+                case GT -> value > operand;
+                case GE -> value >= operand;
+                case EQ -> value == operand;
+                case NE -> value != operand;
+            };
+        }
+    }
+
+    public abstract int sum(int[] values, int from, int to);
+
+    public abstract long sum(long[] values, int from, int to);
+
+    public abstract double sum(double[] values, int from, int to);
+
+    public abstract int min(int[] values, int from, int to);
+
+    public abstract long min(long[] values, int from, int to);
+
+    public abstract double min(double[] values, int from, int to);
+
+    public abstract int max(int[] values, int from, int to);
+
+    public abstract long max(long[] values, int from, int to);
+
+    public abstract double max(double[] values, int from, int to);
+
+    // number of values for which "value comparison operand" holds
+    public abstract long count(int[] values, int from, int to, Comparison comparison, int operand);
+
+    public abstract long count(long[] values, int from, int to, Comparison comparison, long operand);
+
+    public abstract long count(double[] values, int from, int to, Comparison comparison, double operand);
+
+    public static LeafKernels best() {
+        return BEST;
+    }
+
+    public static LeafKernels scalar() {
+        return ScalarLeafKernels.INSTANCE;
+    }
+
+    private static LeafKernels load() {
+        if (ModuleLayer.boot().findModule("jdk.incubator.vector").isEmpty()) {
+            return ScalarLeafKernels.INSTANCE;
+        }
+        try {
+            return (LeafKernels) Class.forName("app.patterns.divide_conquer.VectorLeafKernels")
+                    .getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException | LinkageError e) {
+            return ScalarLeafKernels.INSTANCE;
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package app.patterns.divide_conquer;
+
+
+import java.math.BigInteger;
+import java.nio.LongBuffer;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/*
+ * Pattern: Parallel Divide and Conquer
+ *
+ * Example: Parallel Sum over primitive longs
+ *
+ * Splits a long[] or LongBuffer range instead of a list of boxed BigIntegers.
+ * Partial sums are plain longs. Overflow is detected with the same sign test as
+ * Math.addExact, but without throwing: each partial counts how many times it
+ * wrapped past 2^64. Only a final sum that does not fit in a long is turned into
+ * a BigInteger.
+ */
+public class LongArraySum extends RecursiveTask<LongArraySum.Partial> {
+
+    private static final long serialVersionUID = 1L;
+    private final static AdaptiveSplitPolicy SPLIT = new AdaptiveSplitPolicy(1 << 15); // Decides when to split the computation
+
+    // carries * 2^64 + low, where low is the wrapped long sum
+    public static final class Partial {
+        private final long low;
+        private final long carries;
+
+        Partial(long low, long carries) {
+            this.low = low;
+            this.carries = carries;
+        }
+
+        Partial add(Partial other) {
+            var sum = low + other.low;
+            return new Partial(sum, carries + other.carries + carry(low, other.low, sum));
+        }
+
+        public boolean fitsInLong() {
+            return carries == 0;
+        }
+
+        public BigInteger toBigInteger() {
+            var value = BigInteger.valueOf(low);
+            return carries == 0 ? value : BigInteger.valueOf(carries).shiftLeft(Long.SIZE).add(value);
+        }
+    }
+
+    private final long[] array;
+    private final LongBuffer buffer;
+    private final int from;
+    private final int to;
+
+    private LongArraySum(long[] array, LongBuffer buffer, int from, int to) {
+        this.array = array;
+        this.buffer = buffer;
+        this.from = from;
+        this.to = to;
+    }
+
+    public LongArraySum(long[] values, int from, int to) {
+        this(values, null, from, to);
+    }
+
+    // Sums the buffer's elements between its position and limit, by absolute index
+    public LongArraySum(LongBuffer values) {
+        this(null, values, values.position(), values.limit());
+    }
+
+    public static BigInteger sum(long[] values) {
+        return sum(values, ForkJoinPool.commonPool());
+    }
+
+    public static BigInteger sum(long[] values, ForkJoinPool pool) {
+        return pool.invoke(new LongArraySum(values, 0, values.length)).toBigInteger();
+    }
+
+    public static BigInteger sum(LongBuffer values, ForkJoinPool pool) {
+        return pool.invoke(new LongArraySum(values)).toBigInteger();
+    }
+
+    @Override
+    protected Partial compute() {
+        var size = to - from;
+        if (!SPLIT.shouldSplit(size)) {
+            var start = SPLIT.leafStart();
+            var sum = array != null ? sequentialSum(array, from, to) : sequentialSum(buffer, from, to);
+            SPLIT.recordLeaf(size, start);
+            return sum;
+        } else {
+            var mid = from + size / 2;
+            var x = new LongArraySum(array, buffer, from, mid);
+            var y = new LongArraySum(array, buffer, mid, to);
+            x.fork();
+            var yResult = y.compute();
+            return x.join().add(yResult);
+        }
+    }
+
+    static Partial sequentialSum(long[] values, int from, int to) {
+        var acc = 0L;
+        var carries = 0L;
+        for (int i = from; i < to; i++) {
+            var value = values[i];
+            var sum = acc + value;
+            carries += carry(acc, value, sum);
+            acc = sum;
+        }
+        return new Partial(acc, carries);
+    }
+
+    static Partial sequentialSum(LongBuffer values, int from, int to) {
+        var acc = 0L;
+        var carries = 0L;
+        for (int i = from; i < to; i++) {
+            var value = values.get(i);
+            var sum = acc + value;
+            carries += carry(acc, value, sum);
+            acc = sum;
+        }
+        return new Partial(acc, carries);
+    }
+
+    // +1 or -1 when x + y wrapped around (the Math.addExact sign test), 0 otherwise, without branches
+    static long carry(long x, long y, long sum) {
+        var overflowed = ((x ^ sum) & (y ^ sum)) >> 63;
+        return overflowed & ((y >> 63) | 1);
+    }
+}
@@ -0,0 +1,236 @@
+package app.patterns.divide_conquer;
+
+
+import app.patterns.ThreadSafe;
+
+import java.io.IOException;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.OptionalLong;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.LongBinaryOperator;
+
+/*
+ * Pattern: Parallel Divide and Conquer
+ *
+ * Example: Out-of-core reductions over a memory-mapped file of fixed-width records
+ *
+ * The file is mapped read-only with FileChannel.map in segments of at most 1 GB
+ * (a mapping is limited to 2 GB), each cut at a record boundary. Record ranges
+ * are always split at segment boundaries first, so every leaf scans a slice of
+ * one mapped buffer with absolute reads: no copy to the heap and no boxing per
+ * record. The OS pages the file in and out as leaves touch it, so the file may
+ * be larger than RAM; the heap only holds one partial result per leaf.
+ *
+ * Fields are read with a LongField, e.g. LongField.int64(8) for the long at
+ * byte 8 of each record. A trailing partial record is ignored. Mappings stay
+ * valid after the channel is closed and are released when the instance is
+ * garbage collected.
+ */
+@ThreadSafe
+public class MappedRecordFile {
+
+    private static final long DEFAULT_SEGMENT_BYTES = 1L << 30;
+    private static final AdaptiveSplitPolicy SPLIT = new AdaptiveSplitPolicy(1 << 14);
+
+    // Reads a field of the record starting at recordStart, by absolute index
+    @FunctionalInterface
+    public interface LongField {
+
+        long read(ByteBuffer segment, int recordStart);
+
+        static LongField int64(int offset) {
+            return (segment, recordStart) -> segment.getLong(recordStart + offset);
+        }
+
+        static LongField int32(int offset) {
+            return (segment, recordStart) -> segment.getInt(recordStart + offset);
+        }
+    }
+
+    private final ForkJoinPool pool;
+    private final int recordSize;
+    private final long records;
+    private final long recordsPerSegment;
+    private final MappedByteBuffer[] segments;
+
+    public MappedRecordFile(Path path, int recordSize) throws IOException {
+        this(path, recordSize, ByteOrder.BIG_ENDIAN, DEFAULT_SEGMENT_BYTES, ForkJoinPool.commonPool());
+    }
+
+    public MappedRecordFile(Path path, int recordSize, ByteOrder order, long segmentBytes, ForkJoinPool pool)
+            throws IOException {
+        if (recordSize <= 0) {
+            throw new IllegalArgumentException("recordSize must be positive");
+        }
+        if (segmentBytes < recordSize || segmentBytes > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("segmentBytes must be between recordSize and 2 GB");
+        }
+        this.pool = pool;
+        this.recordSize = recordSize;
+        this.recordsPerSegment = segmentBytes / recordSize;
+        try (var channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            this.records = channel.size() / recordSize;
+            var count = (int) ((records + recordsPerSegment - 1) / recordsPerSegment);
+            this.segments = new MappedByteBuffer[count];
+            for (int i = 0; i < count; i++) {
+                var first = i * recordsPerSegment;
+                var length = Math.min(recordsPerSegment, records - first);
+                segments[i] = channel.map(FileChannel.MapMode.READ_ONLY, first * recordSize, length * recordSize);
+                segments[i].order(order);
+            }
+        }
+    }
+
+    public long records() {
+        return records;
+    }
+
+    public int segments() {
+        return segments.length;
+    }
+
+    public BigInteger sum(LongField field) {
+        return invoke(new Kernel<LongArraySum.Partial>() {
+            @Override
+            public LongArraySum.Partial leaf(ByteBuffer segment, int from, int to, int step) {
+                var acc = 0L;
+                var carries = 0L;
+                for (int at = from; at < to; at += step) {
+                    var value = field.read(segment, at);
+                    var sum = acc + value;
+                    carries += LongArraySum.carry(acc, value, sum);
+                    acc = sum;
+                }
+                return new LongArraySum.Partial(acc, carries);
+            }
+
+            @Override
+            public LongArraySum.Partial combine(LongArraySum.Partial x, LongArraySum.Partial y) {
+                return x.add(y);
+            }
+        }, new LongArraySum.Partial(0, 0)).toBigInteger();
+    }
+
+    public OptionalLong min(LongField field) {
+        return records == 0 ? OptionalLong.empty() : OptionalLong.of(reduce(field, Long.MAX_VALUE, Math::min));
+    }
+
+    public OptionalLong max(LongField field) {
+        return records == 0 ? OptionalLong.empty() : OptionalLong.of(reduce(field, Long.MIN_VALUE, Math::max));
+    }
+
+    // op must be associative, identity its neutral element; partials are combined with op too
+    public long reduce(LongField field, long identity, LongBinaryOperator op) {
+        return invoke(new Kernel<Long>() {
+            @Override
+            public Long leaf(ByteBuffer segment, int from, int to, int step) {
+                var acc = identity;
+                for (int at = from; at < to; at += step) {
+                    acc = op.applyAsLong(acc, field.read(segment, at));
+                }
+                return acc;
+            }
+
+            @Override
+            public Long combine(Long x, Long y) {
+                return op.applyAsLong(x, y);
+            }
+        }, identity);
+    }
+
+    /**
+     * Counts the values in [min, max) into bins of equal width, the last one
+     * possibly narrower. Values out of range are not counted.
+     */
+    public long[] histogram(LongField field, long min, long max, int bins) {
+        if (bins <= 0 || max <= min || max - min < 0) {
+            throw new IllegalArgumentException("need bins > 0 and min < max, with max - min fitting a long");
+        }
+        var range = max - min;
+        var width = range / bins + (range % bins == 0 ? 0 : 1);
+        return invoke(new Kernel<long[]>() {
+            @Override
+            public long[] leaf(ByteBuffer segment, int from, int to, int step) {
+                var counts = new long[bins];
+                for (int at = from; at < to; at += step) {
+                    var value = field.read(segment, at);
+                    if (value >= min && value < max) {
+                        counts[(int) ((value - min) / width)]++;
+                    }
+                }
+                return counts;
+            }
+
+            @Override
+            public long[] combine(long[] x, long[] y) {
+                for (int i = 0; i < bins; i++) {
+                    x[i] += y[i];
+                }
+                return x;
+            }
+        }, new long[bins]);
+    }
+
+    private <R> R invoke(Kernel<R> kernel, R empty) {
+        return records == 0 ? empty : pool.invoke(new ScanTask<>(this, kernel, 0, records));
+    }
+
+    // Leaf over the records at byte positions [from, to) of one segment, step bytes apart
+    private interface Kernel<R> {
+
+        R leaf(ByteBuffer segment, int from, int to, int step);
+
+        R combine(R x, R y);
+    }
+
+    private static class ScanTask<R> extends RecursiveTask<R> {
+
+        private static final long serialVersionUID = 1L;
+        private final MappedRecordFile file;
+        private final Kernel<R> kernel;
+        private final long from;
+        private final long to;
+
+        ScanTask(MappedRecordFile file, Kernel<R> kernel, long from, long to) {
+            this.file = file;
+            this.kernel = kernel;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected R compute() {
+            var perSegment = file.recordsPerSegment;
+            var first = from / perSegment;
+            var last = (to - 1) / perSegment;
+            var size = to - from;
+            long mid;
+            if (first != last) {
+                // across segments: split at the boundary nearest the middle
+                mid = ((first + last + 1) / 2) * perSegment;
+            } else if (SPLIT.shouldSplit(size)) {
+                mid = from + size / 2;
+            } else {
+                var start = SPLIT.leafStart();
+                var base = first * perSegment;
+                var step = file.recordSize;
+                var result = kernel.leaf(file.segments[(int) first],
+                        (int) (from - base) * step, (int) (to - base) * step, step);
+                SPLIT.recordLeaf(size, start);
+                return result;
+            }
+            var x = new ScanTask<>(file, kernel, from, mid);
+            var y = new ScanTask<>(file, kernel, mid, to);
+            x.fork();
+            var yResult = y.compute();
+            return kernel.combine(x.join(), yResult);
+        }
+    }
+}
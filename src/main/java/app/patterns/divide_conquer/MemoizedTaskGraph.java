@@ -0,0 +1,196 @@
+package app.patterns.divide_conquer;
+
+
+import app.patterns.ThreadSafe;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+/*
+ * Pattern: Parallel Divide and Conquer
+ *
+ * Example: Memoized task graph (dynamic programming on ForkJoin)
+ *
+ * Fork/join recursion on overlapping subproblems, like fib(n - 1) and
+ * fib(n - 2), recomputes the same subproblem an exponential number of times.
+ * Here every subproblem has a key and one node in a concurrent memo table:
+ *
+ * - The first request for a key creates its node and schedules it. Later and
+ *   concurrent requests get the same node and wait on its future.
+ * - A scheduled node asks for its dependencies and counts them down as they
+ *   complete. The last one forks the node's own computation with the
+ *   dependency values.
+ * - Nothing waits or recurses on a worker's stack: resolving and computing are
+ *   separate forked tasks, so a chain a million keys deep runs in constant
+ *   stack depth.
+ *
+ * The graph must be acyclic: a cycle never completes. An exception in a node
+ * completes it, and every node depending on it, exceptionally.
+ */
+@ThreadSafe
+public class MemoizedTaskGraph<K, V> {
+
+    private final ForkJoinPool pool;
+    private final Function<? super K, ? extends List<? extends K>> dependencies;
+    private final BiFunction<? super K, ? super List<V>, ? extends V> compute;
+    private final ConcurrentHashMap<K, Node> memo = new ConcurrentHashMap<>();
+
+    /**
+     * dependencies gives the keys a key depends on, compute gives its value from
+     * their values, in the same order.
+     */
+    public MemoizedTaskGraph(Function<? super K, ? extends List<? extends K>> dependencies,
+                             BiFunction<? super K, ? super List<V>, ? extends V> compute) {
+        this(ForkJoinPool.commonPool(), dependencies, compute);
+    }
+
+    public MemoizedTaskGraph(ForkJoinPool pool, Function<? super K, ? extends List<? extends K>> dependencies,
+                             BiFunction<? super K, ? super List<V>, ? extends V> compute) {
+        this.pool = pool;
+        this.dependencies = dependencies;
+        this.compute = compute;
+    }
+
+    // Value of the key, computed once; later calls return the memoized future
+    public CompletableFuture<V> submit(K key) {
+        return node(key).result;
+    }
+
+    public V compute(K key) {
+        return submit(key).join();
+    }
+
+    public Optional<V> cached(K key) {
+        var node = memo.get(key);
+        if (node == null || !node.result.isDone() || node.result.isCompletedExceptionally()) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(node.result.join());
+    }
+
+    public int size() {
+        return memo.size();
+    }
+
+    private Node node(K key) {
+        var node = memo.get(key);
+        if (node != null) {
+            return node;
+        }
+        var created = new Node(key);
+        node = memo.putIfAbsent(key, created);
+        if (node != null) {
+            return node;
+        }
+        pool.execute(created::resolve);
+        return created;
+    }
+
+    private class Node {
+        private final K key;
+        private final CompletableFuture<V> result = new CompletableFuture<>();
+        private List<Node> inputs;
+        // unfinished inputs, plus one held while registering on them
+        private final AtomicInteger pending = new AtomicInteger(1);
+
+        Node(K key) {
+            this.key = key;
+        }
+
+        void resolve() {
+            try {
+                var keys = dependencies.apply(key);
+                var nodes = new ArrayList<Node>(keys.size());
+                for (K dependency : keys) {
+                    nodes.add(node(dependency));
+                }
+                inputs = nodes;
+                pending.addAndGet(nodes.size());
+                for (var input : nodes) {
+                    input.result.whenComplete((value, failure) -> arrive());
+                }
+            } catch (RuntimeException | Error e) {
+                result.completeExceptionally(e);
+                return;
+            }
+            arrive();
+        }
+
+        private void arrive() {
+            if (pending.decrementAndGet() == 0) {
+                pool.execute(this::run);
+            }
+        }
+
+        private void run() {
+            try {
+                var values = new ArrayList<V>(inputs.size());
+                for (var input : inputs) {
+                    // completed already, join only rethrows a failed input
+                    values.add(input.result.join());
+                }
+                result.complete(compute.apply(key, values));
+            } catch (RuntimeException | Error e) {
+                result.completeExceptionally(e);
+            }
+        }
+    }
+
+    /*
+     * Just showing how to use the graph and some really dummy benchmark. Don't
+     * take it seriously.
+     */
+    public static void main(String[] args) {
+        var n = 32;
+        var before = System.currentTimeMillis();
+        var naive = ForkJoinPool.commonPool().invoke(new NaiveFib(n));
+        System.out.println("Naive fork/join fib(" + n + ") = " + naive + ", executed in: "
+                + (System.currentTimeMillis() - before));
+
+        before = System.currentTimeMillis();
+        var fib = new MemoizedTaskGraph<Integer, Long>(
+                k -> k <= 1 ? List.of() : List.of(k - 1, k - 2),
+                (k, values) -> k <= 1 ? (long) k : values.get(0) + values.get(1));
+        System.out.println("Memoized fib(" + n + ") = " + fib.compute(n) + ", executed in: "
+                + (System.currentTimeMillis() - before) + ", nodes: " + fib.size());
+
+        // a million keys deep, far beyond what recursion on the stack survives
+        var modulus = 1_000_000_007L;
+        var deep = 1_000_000;
+        before = System.currentTimeMillis();
+        var fibMod = new MemoizedTaskGraph<Integer, Long>(
+                k -> k <= 1 ? List.of() : List.of(k - 1, k - 2),
+                (k, values) -> k <= 1 ? (long) k : (values.get(0) + values.get(1)) % modulus);
+        System.out.println("Memoized fib(" + deep + ") mod 1e9+7 = " + fibMod.compute(deep) + ", executed in: "
+                + (System.currentTimeMillis() - before));
+    }
+
+    // The exponential version, for comparison
+    private static class NaiveFib extends RecursiveTask<Long> {
+
+        private static final long serialVersionUID = 1L;
+        private final int n;
+
+        NaiveFib(int n) {
+            this.n = n;
+        }
+
+        @Override
+        protected Long compute() {
+            if (n <= 1) {
+                return (long) n;
+            }
+            var fib1 = new NaiveFib(n - 1);
+            fib1.fork();
+            return new NaiveFib(n - 2).compute() + fib1.join();
+        }
+    }
+}
@@ -23,7 +23,7 @@ import java.util.concurrent.RecursiveTask;
  */
 public class ParallelDivideAndConquer {
 
-    private final static int THRESHOLD = 10; // Choosing a number to split the computation
+    private final static AdaptiveSplitPolicy SPLIT = new AdaptiveSplitPolicy(10); // Decides when to split the computation
 
 
     public static class Task extends RecursiveTask<Integer> {
@@ -39,9 +39,12 @@ public class ParallelDivideAndConquer {
         @Override
         protected Integer compute() {
             var size = somethingToDivideAndConquer.size();
-            if (size < THRESHOLD) {
-                // solves directly
-                return 1;
+            if (!SPLIT.shouldSplit(size)) {
+                // solves directly, timing the leaf so the policy learns its cost
+                var start = SPLIT.leafStart();
+                var result = 1; // the direct solution, between leafStart and recordLeaf
+                SPLIT.recordLeaf(size, start);
+                return result;
             } else {
                 // creates tasks, fork and join
                 return 2;
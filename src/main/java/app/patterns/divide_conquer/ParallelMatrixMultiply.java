@@ -0,0 +1,219 @@
+package app.patterns.divide_conquer;
+
+
+import app.patterns.ThreadSafe;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/*
+ * Pattern: Parallel Divide and Conquer
+ *
+ * Example: Parallel matrix multiplication on row-major double[]
+ *
+ * C (n x m) = A (n x k) * B (k x m). The rows or columns of C, whichever are
+ * more, are split in halves while AdaptiveSplitPolicy wants more tasks; every
+ * task writes its own block of C, so there is nothing to combine. Splitting
+ * only decides parallelism: a leaf walks its block in tiles that fit in cache,
+ * so any leaf size keeps its working set small.
+ *
+ * - multiply: for each row of A, each a[i][p] scales row p of B into row i of C.
+ *   Both inner streams are contiguous, so the JIT can vectorize the loop. Tiles
+ *   are TILE columns of C by TILE rows of B (32 KB of B).
+ * - multiplyTransposed: B is given transposed (m x k), so c[i][j] is the dot
+ *   product of two contiguous rows. A 2 x 2 block of C is computed at once, with
+ *   four independent sums, each element loaded serving two of them. Tiles are
+ *   TILE rows of B^T by DEPTH_TILE columns (128 KB).
+ *
+ * Results can differ from a naive triple loop in rounding, since the products
+ * are summed in a different order.
+ */
+@ThreadSafe
+public class ParallelMatrixMultiply {
+
+    private static final int TILE = 64;
+    private static final int DEPTH_TILE = 256;
+    // multiply-adds per task: 64^3 is about 100 µs of work
+    private static final AdaptiveSplitPolicy SPLIT = new AdaptiveSplitPolicy(TILE * TILE * TILE);
+
+    private final ForkJoinPool pool;
+
+    public ParallelMatrixMultiply() {
+        this(ForkJoinPool.commonPool());
+    }
+
+    public ParallelMatrixMultiply(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    public double[] multiply(double[] a, double[] b, int n, int k, int m) {
+        checkSizes(a, b, n, k, m);
+        var c = new double[n * m];
+        pool.invoke(new MultiplyTask(a, b, c, false, n, k, m, 0, n, 0, m));
+        return c;
+    }
+
+    // bt is B transposed, m x k, see transpose
+    public double[] multiplyTransposed(double[] a, double[] bt, int n, int k, int m) {
+        checkSizes(a, bt, n, k, m);
+        var c = new double[n * m];
+        pool.invoke(new MultiplyTask(a, bt, c, true, n, k, m, 0, n, 0, m));
+        return c;
+    }
+
+    public static double[] transpose(double[] matrix, int rows, int cols) {
+        var transposed = new double[rows * cols];
+        for (int i0 = 0; i0 < rows; i0 += TILE) {
+            for (int j0 = 0; j0 < cols; j0 += TILE) {
+                for (int i = i0, iTo = Math.min(rows, i0 + TILE); i < iTo; i++) {
+                    for (int j = j0, jTo = Math.min(cols, j0 + TILE); j < jTo; j++) {
+                        transposed[j * rows + i] = matrix[i * cols + j];
+                    }
+                }
+            }
+        }
+        return transposed;
+    }
+
+    private static class MultiplyTask extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+        private final double[] a;
+        private final double[] b;
+        private final double[] c;
+        private final boolean transposed;
+        private final int n;
+        private final int k;
+        private final int m;
+        private final int rowFrom;
+        private final int rowTo;
+        private final int colFrom;
+        private final int colTo;
+
+        MultiplyTask(double[] a, double[] b, double[] c, boolean transposed, int n, int k, int m,
+                     int rowFrom, int rowTo, int colFrom, int colTo) {
+            this.a = a;
+            this.b = b;
+            this.c = c;
+            this.transposed = transposed;
+            this.n = n;
+            this.k = k;
+            this.m = m;
+            this.rowFrom = rowFrom;
+            this.rowTo = rowTo;
+            this.colFrom = colFrom;
+            this.colTo = colTo;
+        }
+
+        @Override
+        protected void compute() {
+            var rows = rowTo - rowFrom;
+            var cols = colTo - colFrom;
+            var size = (long) rows * cols * k;
+            if ((rows < 2 && cols < 2) || !SPLIT.shouldSplit(size)) {
+                var start = SPLIT.leafStart();
+                if (transposed) {
+                    multiplyTransposedBlock(a, b, c, k, m, rowFrom, rowTo, colFrom, colTo);
+                } else {
+                    multiplyBlock(a, b, c, k, m, rowFrom, rowTo, colFrom, colTo);
+                }
+                SPLIT.recordLeaf(size, start);
+                return;
+            }
+            if (rows >= cols) {
+                var mid = (rowFrom + rowTo) >>> 1;
+                invokeAll(new MultiplyTask(a, b, c, transposed, n, k, m, rowFrom, mid, colFrom, colTo),
+                        new MultiplyTask(a, b, c, transposed, n, k, m, mid, rowTo, colFrom, colTo));
+            } else {
+                var mid = (colFrom + colTo) >>> 1;
+                invokeAll(new MultiplyTask(a, b, c, transposed, n, k, m, rowFrom, rowTo, colFrom, mid),
+                        new MultiplyTask(a, b, c, transposed, n, k, m, rowFrom, rowTo, mid, colTo));
+            }
+        }
+    }
+
+    // c[rows][cols] += a[rows][*] * b[*][cols], tiled over the depth and the columns
+    static void multiplyBlock(double[] a, double[] b, double[] c, int k, int m,
+                              int rowFrom, int rowTo, int colFrom, int colTo) {
+        for (int p0 = 0; p0 < k; p0 += TILE) {
+            var pTo = Math.min(k, p0 + TILE);
+            for (int j0 = colFrom; j0 < colTo; j0 += TILE) {
+                var jTo = Math.min(colTo, j0 + TILE);
+                for (int i = rowFrom; i < rowTo; i++) {
+                    var cRow = i * m;
+                    var aRow = i * k;
+                    for (int p = p0; p < pTo; p++) {
+                        var aip = a[aRow + p];
+                        var bRow = p * m;
+                        for (int j = j0; j < jTo; j++) {
+                            c[cRow + j] += aip * b[bRow + j];
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    // c[i][j] += dot(a[i], bt[j]), two rows by two columns at a time
+    static void multiplyTransposedBlock(double[] a, double[] bt, double[] c, int k, int m,
+                                        int rowFrom, int rowTo, int colFrom, int colTo) {
+        for (int p0 = 0; p0 < k; p0 += DEPTH_TILE) {
+            var pTo = Math.min(k, p0 + DEPTH_TILE);
+            for (int j0 = colFrom; j0 < colTo; j0 += TILE) {
+                var jTo = Math.min(colTo, j0 + TILE);
+                var i = rowFrom;
+                for (; i + 1 < rowTo; i += 2) {
+                    var a0 = i * k;
+                    var a1 = a0 + k;
+                    var j = j0;
+                    for (; j + 1 < jTo; j += 2) {
+                        var b0 = j * k;
+                        var b1 = b0 + k;
+                        double s00 = 0, s01 = 0, s10 = 0, s11 = 0;
+                        for (int p = p0; p < pTo; p++) {
+                            var x0 = a[a0 + p];
+                            var x1 = a[a1 + p];
+                            var y0 = bt[b0 + p];
+                            var y1 = bt[b1 + p];
+                            s00 += x0 * y0;
+                            s01 += x0 * y1;
+                            s10 += x1 * y0;
+                            s11 += x1 * y1;
+                        }
+                        c[i * m + j] += s00;
+                        c[i * m + j + 1] += s01;
+                        c[(i + 1) * m + j] += s10;
+                        c[(i + 1) * m + j + 1] += s11;
+                    }
+                    if (j < jTo) {
+                        c[i * m + j] += dot(a, a0, bt, j * k, p0, pTo);
+                        c[(i + 1) * m + j] += dot(a, a1, bt, j * k, p0, pTo);
+                    }
+                }
+                if (i < rowTo) {
+                    for (int j = j0; j < jTo; j++) {
+                        c[i * m + j] += dot(a, i * k, bt, j * k, p0, pTo);
+                    }
+                }
+            }
+        }
+    }
+
+    private static double dot(double[] x, int xRow, double[] y, int yRow, int from, int to) {
+        var sum = 0.0;
+        for (int p = from; p < to; p++) {
+            sum += x[xRow + p] * y[yRow + p];
+        }
+        return sum;
+    }
+
+    private static void checkSizes(double[] a, double[] b, int n, int k, int m) {
+        if (a.length != (long) n * k || b.length != (long) k * m) {
+            throw new IllegalArgumentException("expected A of " + n + " x " + k + " and B of " + k + " x " + m
+                    + " elements, got " + a.length + " and " + b.length);
+        }
+        if ((long) n * m > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("C of " + n + " x " + m + " does not fit in an array");
+        }
+    }
+}
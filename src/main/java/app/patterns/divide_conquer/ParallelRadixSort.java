@@ -0,0 +1,124 @@
+package app.patterns.divide_conquer;
+
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+
+/*
+ * Pattern: Parallel Divide and Conquer
+ *
+ * Example: Parallel LSD radix sort for long[]
+ *
+ * Sorts by 8-bit digits, least significant first, ping-ponging between the
+ * array and one scratch array of the same size. Each pass:
+ *
+ * - Every block of the input counts its digits into its own histogram.
+ * - A prefix sum over (digit, block) turns the histograms into the offset
+ *   where each block writes each digit, so blocks scatter without contention
+ *   and the sort stays stable.
+ * - Every block scatters through software write-combining buffers: a small
+ *   buffer per digit, flushed with one arraycopy when full. Writes then go
+ *   to 256 streams a cache line at a time, instead of one scattered store per
+ *   element.
+ *
+ * A pass where every key has the same digit is skipped. The top digit has its
+ * sign bit flipped so negative keys sort first. Inputs under 64K keys go to
+ * Arrays.sort.
+ */
+public class ParallelRadixSort {
+
+    private static final int DIGIT_BITS = 8;
+    private static final int RADIX = 1 << DIGIT_BITS;
+    private static final int PASSES = Long.SIZE / DIGIT_BITS;
+    // 16 longs = two cache lines per digit and block
+    private static final int BUFFER_SIZE = 16;
+    private static final int SEQUENTIAL_THRESHOLD = 1 << 16;
+    private static final int MIN_BLOCK_SIZE = 1 << 14;
+
+    public static void sort(long[] values) {
+        sort(values, ForkJoinPool.commonPool());
+    }
+
+    public static void sort(long[] values, ForkJoinPool pool) {
+        var n = values.length;
+        if (n < SEQUENTIAL_THRESHOLD) {
+            Arrays.sort(values);
+            return;
+        }
+        var blocks = Math.max(1, Math.min(pool.getParallelism(), n / MIN_BLOCK_SIZE));
+        var blockSize = (n + blocks - 1) / blocks;
+        var histograms = new int[blocks][RADIX];
+        var offsets = new int[blocks][RADIX];
+        var buffers = new long[blocks][RADIX * BUFFER_SIZE];
+        var fills = new int[blocks][RADIX];
+
+        var src = values;
+        var dest = new long[n];
+        for (int pass = 0; pass < PASSES; pass++) {
+            var shift = pass * DIGIT_BITS;
+            var flip = pass == PASSES - 1 ? RADIX >>> 1 : 0;
+            var from = src;
+            BlockRange.forEach(pool, blocks, b -> {
+                var histogram = histograms[b];
+                Arrays.fill(histogram, 0);
+                for (int i = b * blockSize, to = Math.min(n, i + blockSize); i < to; i++) {
+                    histogram[digit(from[i], shift, flip)]++;
+                }
+            });
+            if (!scatterOffsets(histograms, offsets, n)) {
+                continue;
+            }
+            var target = dest;
+            BlockRange.forEach(pool, blocks, b -> scatter(from, target, b * blockSize, Math.min(n, (b + 1) * blockSize),
+                    shift, flip, offsets[b], buffers[b], fills[b]));
+            dest = src;
+            src = target;
+        }
+        if (src != values) {
+            System.arraycopy(src, 0, values, 0, n);
+        }
+    }
+
+    private static int digit(long key, int shift, int flip) {
+        return ((int) (key >>> shift) & (RADIX - 1)) ^ flip;
+    }
+
+    // Exclusive prefix sum over digits, then blocks; false when one digit holds every key
+    private static boolean scatterOffsets(int[][] histograms, int[][] offsets, int n) {
+        var next = 0;
+        for (int d = 0; d < RADIX; d++) {
+            var total = 0;
+            for (int b = 0; b < histograms.length; b++) {
+                offsets[b][d] = next + total;
+                total += histograms[b][d];
+            }
+            if (total == n) {
+                return false;
+            }
+            next += total;
+        }
+        return true;
+    }
+
+    private static void scatter(long[] src, long[] dest, int from, int to, int shift, int flip,
+                                int[] offsets, long[] buffer, int[] fill) {
+        Arrays.fill(fill, 0);
+        for (int i = from; i < to; i++) {
+            var key = src[i];
+            var d = digit(key, shift, flip);
+            var count = fill[d];
+            buffer[d * BUFFER_SIZE + count] = key;
+            if (++count == BUFFER_SIZE) {
+                System.arraycopy(buffer, d * BUFFER_SIZE, dest, offsets[d], BUFFER_SIZE);
+                offsets[d] += BUFFER_SIZE;
+                count = 0;
+            }
+            fill[d] = count;
+        }
+        for (int d = 0; d < RADIX; d++) {
+            if (fill[d] > 0) {
+                System.arraycopy(buffer, d * BUFFER_SIZE, dest, offsets[d], fill[d]);
+            }
+        }
+    }
+}
@@ -0,0 +1,601 @@
+package app.patterns.divide_conquer;
+
+
+import app.patterns.ThreadSafe;
+
+import java.util.Spliterator;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.BiFunction;
+import java.util.function.BinaryOperator;
+import java.util.function.Consumer;
+import java.util.function.DoubleBinaryOperator;
+import java.util.function.DoubleConsumer;
+import java.util.function.IntBinaryOperator;
+import java.util.function.IntConsumer;
+import java.util.function.IntToDoubleFunction;
+import java.util.function.IntToLongFunction;
+import java.util.function.IntUnaryOperator;
+import java.util.function.LongBinaryOperator;
+import java.util.function.LongConsumer;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
+
+/*
+ * Pattern: Parallel Divide and Conquer
+ *
+ * Example: Parallel Reduce engine
+ *
+ * One split/fork/join reduction instead of one per task class. Sources are a
+ * Spliterator, split with trySplit, or an indexed range [from, to) with a
+ * function from index to element, split in halves. Each leaf folds its part
+ * with the accumulator, and the combiner joins partial results left to right,
+ * so the operation only has to be associative. Splitting uses the engine's
+ * AdaptiveSplitPolicy, so keep one engine per kind of reduction.
+ *
+ * The int, long and double versions take one associative op that is both the
+ * accumulator and the combiner (map the elements first with the indexed
+ * source: reduceInt, reduceLong, reduceDouble, named apart so an implicit
+ * lambda picks one). They keep accumulators and partial results in primitive
+ * fields, so neither leaf loops nor joins box.
+ *
+ * sum, min, max and count over whole arrays run their leaves with LeafKernels:
+ * SIMD loops when the Vector API is available, with no operator call per
+ * element. Like the arrays they read, int sums wrap on overflow.
+ */
+@ThreadSafe
+public class ParallelReduce {
+
+    private static final int INITIAL_LEAF_SIZE = 1 << 12;
+
+    private final ForkJoinPool pool;
+    private final AdaptiveSplitPolicy split;
+    private final LeafKernels kernels;
+
+    public ParallelReduce() {
+        this(ForkJoinPool.commonPool(), new AdaptiveSplitPolicy(INITIAL_LEAF_SIZE));
+    }
+
+    public ParallelReduce(ForkJoinPool pool, AdaptiveSplitPolicy split) {
+        this(pool, split, LeafKernels.best());
+    }
+
+    public ParallelReduce(ForkJoinPool pool, AdaptiveSplitPolicy split, LeafKernels kernels) {
+        this.pool = pool;
+        this.split = split;
+        this.kernels = kernels;
+    }
+
+    public AdaptiveSplitPolicy getSplitPolicy() {
+        return split;
+    }
+
+    // Generic, like Stream.reduce(identity, accumulator, combiner)
+
+    public <T, U> U reduce(Spliterator<T> source, U identity,
+                           BiFunction<U, ? super T, U> accumulator, BinaryOperator<U> combiner) {
+        var task = new SpliteratorTask<>(source, identity, accumulator, combiner);
+        pool.invoke(task);
+        return task.result;
+    }
+
+    // int
+
+    public int reduce(int[] values, int identity, IntBinaryOperator op) {
+        return reduceInt(0, values.length, i -> values[i], identity, op);
+    }
+
+    public int reduceInt(int from, int to, IntUnaryOperator element, int identity, IntBinaryOperator op) {
+        var task = new IntRangeTask(from, to, element, identity, op);
+        pool.invoke(task);
+        return task.result;
+    }
+
+    public int reduce(Spliterator.OfInt source, int identity, IntBinaryOperator op) {
+        var task = new IntSpliteratorTask(source, identity, op);
+        pool.invoke(task);
+        return task.result;
+    }
+
+    // long
+
+    public long reduce(long[] values, long identity, LongBinaryOperator op) {
+        return reduceLong(0, values.length, i -> values[i], identity, op);
+    }
+
+    public long reduceLong(int from, int to, IntToLongFunction element, long identity, LongBinaryOperator op) {
+        var task = new LongRangeTask(from, to, element, identity, op);
+        pool.invoke(task);
+        return task.result;
+    }
+
+    public long reduce(Spliterator.OfLong source, long identity, LongBinaryOperator op) {
+        var task = new LongSpliteratorTask(source, identity, op);
+        pool.invoke(task);
+        return task.result;
+    }
+
+    // double
+
+    public double reduce(double[] values, double identity, DoubleBinaryOperator op) {
+        return reduceDouble(0, values.length, i -> values[i], identity, op);
+    }
+
+    public double reduceDouble(int from, int to, IntToDoubleFunction element, double identity, DoubleBinaryOperator op) {
+        var task = new DoubleRangeTask(from, to, element, identity, op);
+        pool.invoke(task);
+        return task.result;
+    }
+
+    public double reduce(Spliterator.OfDouble source, double identity, DoubleBinaryOperator op) {
+        var task = new DoubleSpliteratorTask(source, identity, op);
+        pool.invoke(task);
+        return task.result;
+    }
+
+    // Array reductions with leaf kernels
+
+    public int sum(int[] values) {
+        return (int) reduceLongLeaves(values.length, (from, to) -> kernels.sum(values, from, to), Long::sum);
+    }
+
+    public int min(int[] values) {
+        return (int) reduceLongLeaves(values.length, (from, to) -> kernels.min(values, from, to), Math::min);
+    }
+
+    public int max(int[] values) {
+        return (int) reduceLongLeaves(values.length, (from, to) -> kernels.max(values, from, to), Math::max);
+    }
+
+    public long count(int[] values, LeafKernels.Comparison comparison, int operand) {
+        return reduceLongLeaves(values.length, (from, to) -> kernels.count(values, from, to, comparison, operand),
+                Long::sum);
+    }
+
+    public long sum(long[] values) {
+        return reduceLongLeaves(values.length, (from, to) -> kernels.sum(values, from, to), Long::sum);
+    }
+
+    public long min(long[] values) {
+        return reduceLongLeaves(values.length, (from, to) -> kernels.min(values, from, to), Math::min);
+    }
+
+    public long max(long[] values) {
+        return reduceLongLeaves(values.length, (from, to) -> kernels.max(values, from, to), Math::max);
+    }
+
+    public long count(long[] values, LeafKernels.Comparison comparison, long operand) {
+        return reduceLongLeaves(values.length, (from, to) -> kernels.count(values, from, to, comparison, operand),
+                Long::sum);
+    }
+
+    public double sum(double[] values) {
+        return reduceDoubleLeaves(values.length, (from, to) -> kernels.sum(values, from, to), Double::sum);
+    }
+
+    public double min(double[] values) {
+        return reduceDoubleLeaves(values.length, (from, to) -> kernels.min(values, from, to), Math::min);
+    }
+
+    public double max(double[] values) {
+        return reduceDoubleLeaves(values.length, (from, to) -> kernels.max(values, from, to), Math::max);
+    }
+
+    public long count(double[] values, LeafKernels.Comparison comparison, double operand) {
+        return reduceLongLeaves(values.length, (from, to) -> kernels.count(values, from, to, comparison, operand),
+                Long::sum);
+    }
+
+    private long reduceLongLeaves(int size, LongLeaf leaf, LongBinaryOperator combiner) {
+        var task = new LongLeafTask(0, size, leaf, combiner);
+        pool.invoke(task);
+        return task.result;
+    }
+
+    private double reduceDoubleLeaves(int size, DoubleLeaf leaf, DoubleBinaryOperator combiner) {
+        var task = new DoubleLeafTask(0, size, leaf, combiner);
+        pool.invoke(task);
+        return task.result;
+    }
+
+    // A whole leaf [from, to) at once
+    private interface LongLeaf {
+        long apply(int from, int to);
+    }
+
+    private interface DoubleLeaf {
+        double apply(int from, int to);
+    }
+
+    private class LongLeafTask extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+        private final int from;
+        private final int to;
+        private final LongLeaf leaf;
+        private final LongBinaryOperator combiner;
+        private long result;
+
+        LongLeafTask(int from, int to, LongLeaf leaf, LongBinaryOperator combiner) {
+            this.from = from;
+            this.to = to;
+            this.leaf = leaf;
+            this.combiner = combiner;
+        }
+
+        @Override
+        protected void compute() {
+            var size = to - from;
+            if (split.shouldSplit(size)) {
+                var mid = from + size / 2;
+                var left = new LongLeafTask(from, mid, leaf, combiner);
+                var right = new LongLeafTask(mid, to, leaf, combiner);
+                left.fork();
+                right.compute();
+                left.join();
+                result = combiner.applyAsLong(left.result, right.result);
+                return;
+            }
+            var start = split.leafStart();
+            result = leaf.apply(from, to);
+            split.recordLeaf(size, start);
+        }
+    }
+
+    private class DoubleLeafTask extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+        private final int from;
+        private final int to;
+        private final DoubleLeaf leaf;
+        private final DoubleBinaryOperator combiner;
+        private double result;
+
+        DoubleLeafTask(int from, int to, DoubleLeaf leaf, DoubleBinaryOperator combiner) {
+            this.from = from;
+            this.to = to;
+            this.leaf = leaf;
+            this.combiner = combiner;
+        }
+
+        @Override
+        protected void compute() {
+            var size = to - from;
+            if (split.shouldSplit(size)) {
+                var mid = from + size / 2;
+                var left = new DoubleLeafTask(from, mid, leaf, combiner);
+                var right = new DoubleLeafTask(mid, to, leaf, combiner);
+                left.fork();
+                right.compute();
+                left.join();
+                result = combiner.applyAsDouble(left.result, right.result);
+                return;
+            }
+            var start = split.leafStart();
+            result = leaf.apply(from, to);
+            split.recordLeaf(size, start);
+        }
+    }
+
+    private class SpliteratorTask<T, U> extends RecursiveAction implements Consumer<T> {
+
+        private static final long serialVersionUID = 1L;
+        private final Spliterator<T> source;
+        private final U identity;
+        private final BiFunction<U, ? super T, U> accumulator;
+        private final BinaryOperator<U> combiner;
+        private U result;
+        // counted, since an unsized source only estimates its size as Long.MAX_VALUE
+        private long elements;
+
+        SpliteratorTask(Spliterator<T> source, U identity,
+                        BiFunction<U, ? super T, U> accumulator, BinaryOperator<U> combiner) {
+            this.source = source;
+            this.identity = identity;
+            this.accumulator = accumulator;
+            this.combiner = combiner;
+        }
+
+        // leaf accumulation straight into the result field
+        @Override
+        public void accept(T element) {
+            result = accumulator.apply(result, element);
+            elements++;
+        }
+
+        @Override
+        protected void compute() {
+            Spliterator<T> prefix;
+            if (split.shouldSplit(source.estimateSize()) && (prefix = source.trySplit()) != null) {
+                var left = new SpliteratorTask<>(prefix, identity, accumulator, combiner);
+                var right = new SpliteratorTask<>(source, identity, accumulator, combiner);
+                left.fork();
+                right.compute();
+                left.join();
+                result = combiner.apply(left.result, right.result);
+                return;
+            }
+            var start = split.leafStart();
+            result = identity;
+            source.forEachRemaining(this);
+            split.recordLeaf(elements, start);
+        }
+    }
+
+    private class IntRangeTask extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+        private final int from;
+        private final int to;
+        private final IntUnaryOperator element;
+        private final int identity;
+        private final IntBinaryOperator op;
+        private int result;
+
+        IntRangeTask(int from, int to, IntUnaryOperator element, int identity, IntBinaryOperator op) {
+            this.from = from;
+            this.to = to;
+            this.element = element;
+            this.identity = identity;
+            this.op = op;
+        }
+
+        @Override
+        protected void compute() {
+            var size = to - from;
+            if (split.shouldSplit(size)) {
+                var mid = from + size / 2;
+                var left = new IntRangeTask(from, mid, element, identity, op);
+                var right = new IntRangeTask(mid, to, element, identity, op);
+                left.fork();
+                right.compute();
+                left.join();
+                result = op.applyAsInt(left.result, right.result);
+                return;
+            }
+            var start = split.leafStart();
+            var acc = identity;
+            for (int i = from; i < to; i++) {
+                acc = op.applyAsInt(acc, element.applyAsInt(i));
+            }
+            split.recordLeaf(size, start);
+            result = acc;
+        }
+    }
+
+    private class LongRangeTask extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+        private final int from;
+        private final int to;
+        private final IntToLongFunction element;
+        private final long identity;
+        private final LongBinaryOperator op;
+        private long result;
+
+        LongRangeTask(int from, int to, IntToLongFunction element, long identity, LongBinaryOperator op) {
+            this.from = from;
+            this.to = to;
+            this.element = element;
+            this.identity = identity;
+            this.op = op;
+        }
+
+        @Override
+        protected void compute() {
+            var size = to - from;
+            if (split.shouldSplit(size)) {
+                var mid = from + size / 2;
+                var left = new LongRangeTask(from, mid, element, identity, op);
+                var right = new LongRangeTask(mid, to, element, identity, op);
+                left.fork();
+                right.compute();
+                left.join();
+                result = op.applyAsLong(left.result, right.result);
+                return;
+            }
+            var start = split.leafStart();
+            var acc = identity;
+            for (int i = from; i < to; i++) {
+                acc = op.applyAsLong(acc, element.applyAsLong(i));
+            }
+            split.recordLeaf(size, start);
+            result = acc;
+        }
+    }
+
+    private class DoubleRangeTask extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+        private final int from;
+        private final int to;
+        private final IntToDoubleFunction element;
+        private final double identity;
+        private final DoubleBinaryOperator op;
+        private double result;
+
+        DoubleRangeTask(int from, int to, IntToDoubleFunction element, double identity, DoubleBinaryOperator op) {
+            this.from = from;
+            this.to = to;
+            this.element = element;
+            this.identity = identity;
+            this.op = op;
+        }
+
+        @Override
+        protected void compute() {
+            var size = to - from;
+            if (split.shouldSplit(size)) {
+                var mid = from + size / 2;
+                var left = new DoubleRangeTask(from, mid, element, identity, op);
+                var right = new DoubleRangeTask(mid, to, element, identity, op);
+                left.fork();
+                right.compute();
+                left.join();
+                result = op.applyAsDouble(left.result, right.result);
+                return;
+            }
+            var start = split.leafStart();
+            var acc = identity;
+            for (int i = from; i < to; i++) {
+                acc = op.applyAsDouble(acc, element.applyAsDouble(i));
+            }
+            split.recordLeaf(size, start);
+            result = acc;
+        }
+    }
+
+    private class IntSpliteratorTask extends RecursiveAction implements IntConsumer {
+
+        private static final long serialVersionUID = 1L;
+        private final Spliterator.OfInt source;
+        private final int identity;
+        private final IntBinaryOperator op;
+        private int result;
+        private long elements;
+
+        IntSpliteratorTask(Spliterator.OfInt source, int identity, IntBinaryOperator op) {
+            this.source = source;
+            this.identity = identity;
+            this.op = op;
+        }
+
+        @Override
+        public void accept(int value) {
+            result = op.applyAsInt(result, value);
+            elements++;
+        }
+
+        @Override
+        protected void compute() {
+            Spliterator.OfInt prefix;
+            if (split.shouldSplit(source.estimateSize()) && (prefix = source.trySplit()) != null) {
+                var left = new IntSpliteratorTask(prefix, identity, op);
+                var right = new IntSpliteratorTask(source, identity, op);
+                left.fork();
+                right.compute();
+                left.join();
+                result = op.applyAsInt(left.result, right.result);
+                return;
+            }
+            var start = split.leafStart();
+            result = identity;
+            source.forEachRemaining((IntConsumer) this);
+            split.recordLeaf(elements, start);
+        }
+    }
+
+    private class LongSpliteratorTask extends RecursiveAction implements LongConsumer {
+
+        private static final long serialVersionUID = 1L;
+        private final Spliterator.OfLong source;
+        private final long identity;
+        private final LongBinaryOperator op;
+        private long result;
+        private long elements;
+
+        LongSpliteratorTask(Spliterator.OfLong source, long identity, LongBinaryOperator op) {
+            this.source = source;
+            this.identity = identity;
+            this.op = op;
+        }
+
+        @Override
+        public void accept(long value) {
+            result = op.applyAsLong(result, value);
+            elements++;
+        }
+
+        @Override
+        protected void compute() {
+            Spliterator.OfLong prefix;
+            if (split.shouldSplit(source.estimateSize()) && (prefix = source.trySplit()) != null) {
+                var left = new LongSpliteratorTask(prefix, identity, op);
+                var right = new LongSpliteratorTask(source, identity, op);
+                left.fork();
+                right.compute();
+                left.join();
+                result = op.applyAsLong(left.result, right.result);
+                return;
+            }
+            var start = split.leafStart();
+            result = identity;
+            source.forEachRemaining((LongConsumer) this);
+            split.recordLeaf(elements, start);
+        }
+    }
+
+    private class DoubleSpliteratorTask extends RecursiveAction implements DoubleConsumer {
+
+        private static final long serialVersionUID = 1L;
+        private final Spliterator.OfDouble source;
+        private final double identity;
+        private final DoubleBinaryOperator op;
+        private double result;
+        private long elements;
+
+        DoubleSpliteratorTask(Spliterator.OfDouble source, double identity, DoubleBinaryOperator op) {
+            this.source = source;
+            this.identity = identity;
+            this.op = op;
+        }
+
+        @Override
+        public void accept(double value) {
+            result = op.applyAsDouble(result, value);
+            elements++;
+        }
+
+        @Override
+        protected void compute() {
+            Spliterator.OfDouble prefix;
+            if (split.shouldSplit(source.estimateSize()) && (prefix = source.trySplit()) != null) {
+                var left = new DoubleSpliteratorTask(prefix, identity, op);
+                var right = new DoubleSpliteratorTask(source, identity, op);
+                left.fork();
+                right.compute();
+                left.join();
+                result = op.applyAsDouble(left.result, right.result);
+                return;
+            }
+            var start = split.leafStart();
+            result = identity;
+            source.forEachRemaining((DoubleConsumer) this);
+            split.recordLeaf(elements, start);
+        }
+    }
+
+    /*
+     * Just showing how to use the engine and some really dummy benchmark. Don't
+     * take it seriously.
+     */
+    public static void main(String[] args) {
+        var longs = LongStream.range(0, 10_000_000L).toArray();
+        var doubles = LongStream.range(0, 10_000_000L).mapToDouble(i -> (i * 7919) % 10_007).toArray();
+        var boxed = IntStream.range(0, 1_000_000).boxed().collect(Collectors.toList());
+
+        var sums = new ParallelReduce();
+        var maxima = new ParallelReduce();
+        var maxInts = new ParallelReduce();
+        var boxedSums = new ParallelReduce();
+        for (int round = 0; round < 3; round++) {
+            dummyBenchmark("long[] sum", () -> sums.reduce(longs, 0L, Long::sum));
+            dummyBenchmark("double[] max", () -> maxima.reduce(doubles, Double.NEGATIVE_INFINITY, Math::max));
+            dummyBenchmark("Spliterator.OfInt max",
+                    () -> maxInts.reduce(IntStream.range(0, 10_000_000).map(i -> (i * 31) % 1_000_003).spliterator(),
+                            Integer.MIN_VALUE, Math::max));
+            dummyBenchmark("List<Integer> spliterator sum", () -> boxedSums.reduce(boxed.spliterator(), 0L,
+                    (Long acc, Integer value) -> acc + value, Long::sum));
+            System.out.println("######\n");
+        }
+    }
+
+    static void dummyBenchmark(String name, Supplier<Object> reduction) {
+        var before = System.currentTimeMillis();
+        var result = reduction.get();
+        var after = System.currentTimeMillis();
+        System.out.println(name + " = " + result + ", executed in: " + (after - before));
+    }
+}
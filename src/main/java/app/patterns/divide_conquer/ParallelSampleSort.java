@@ -0,0 +1,129 @@
+package app.patterns.divide_conquer;
+
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ThreadLocalRandom;
+
+/*
+ * Pattern: Parallel Divide and Conquer
+ *
+ * Example: Parallel sample sort with a Comparator
+ *
+ * Picks splitters from a sorted random sample. It then partitions the input
+ * into buckets with one parallel pass and sorts the buckets in parallel. Unlike
+ * merge-based sorts, there is no sequential top merge, and each element moves
+ * only once before its bucket is sorted.
+ *
+ * - Splitters: a random sample of OVERSAMPLING elements per bucket is sorted,
+ *   and every OVERSAMPLING-th element becomes a splitter, so buckets come out
+ *   about the same size even when the input is skewed.
+ * - Keys equal to a splitter go to that splitter's own bucket, which needs no
+ *   sorting. A heavy hitter (a value repeated a large part of the input) then
+ *   fills one free bucket instead of one oversized bucket to sort.
+ * - Classification: every block finds each element's bucket by binary search
+ *   over the splitters and counts it. A prefix sum over (bucket, block) gives
+ *   each block its write offsets, then the blocks scatter to a scratch array.
+ * - Buckets are sorted with Arrays.sort and copied back, in parallel.
+ *
+ * Scatter keeps the input order within buckets and Arrays.sort is stable, so
+ * the sort is stable. Inputs under 64K elements go to Arrays.sort.
+ */
+public class ParallelSampleSort {
+
+    private static final int OVERSAMPLING = 32;
+    private static final int BUCKETS_PER_WORKER = 8;
+    private static final int SEQUENTIAL_THRESHOLD = 1 << 16;
+    private static final int MIN_BLOCK_SIZE = 1 << 14;
+
+    public static <T> void sort(T[] values, Comparator<? super T> comparator) {
+        sort(values, comparator, ForkJoinPool.commonPool());
+    }
+
+    public static <T> void sort(T[] values, Comparator<? super T> comparator, ForkJoinPool pool) {
+        var n = values.length;
+        if (n < SEQUENTIAL_THRESHOLD || pool.getParallelism() == 1) {
+            Arrays.sort(values, comparator);
+            return;
+        }
+        var splitters = splitters(values, comparator, pool.getParallelism() * BUCKETS_PER_WORKER);
+        // bucket 2i holds keys between splitter i-1 and i, bucket 2i+1 keys equal to splitter i
+        var buckets = 2 * splitters.length + 1;
+        var blocks = Math.max(1, Math.min(pool.getParallelism() * 2, n / MIN_BLOCK_SIZE));
+        var blockSize = (n + blocks - 1) / blocks;
+        var bucketOf = new int[n];
+        var histograms = new int[blocks][buckets];
+
+        BlockRange.forEach(pool, blocks, b -> {
+            var histogram = histograms[b];
+            for (int i = b * blockSize, to = Math.min(n, i + blockSize); i < to; i++) {
+                var bucket = bucketOf(values[i], splitters, comparator);
+                bucketOf[i] = bucket;
+                histogram[bucket]++;
+            }
+        });
+
+        var offsets = new int[blocks][buckets];
+        var bucketStarts = new int[buckets + 1];
+        var next = 0;
+        for (int k = 0; k < buckets; k++) {
+            bucketStarts[k] = next;
+            for (int b = 0; b < blocks; b++) {
+                offsets[b][k] = next;
+                next += histograms[b][k];
+            }
+        }
+        bucketStarts[buckets] = n;
+
+        var scratch = Arrays.copyOf(values, n);
+        BlockRange.forEach(pool, blocks, b -> {
+            var offset = offsets[b];
+            for (int i = b * blockSize, to = Math.min(n, i + blockSize); i < to; i++) {
+                scratch[offset[bucketOf[i]]++] = values[i];
+            }
+        });
+
+        BlockRange.forEach(pool, buckets, k -> {
+            var from = bucketStarts[k];
+            var to = bucketStarts[k + 1];
+            // equal-key buckets are already sorted
+            if ((k & 1) == 0 && to - from > 1) {
+                Arrays.sort(scratch, from, to, comparator);
+            }
+            System.arraycopy(scratch, from, values, from, to - from);
+        });
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T[] splitters(T[] values, Comparator<? super T> comparator, int buckets) {
+        var random = ThreadLocalRandom.current();
+        var sample = (T[]) new Object[buckets * OVERSAMPLING];
+        for (int i = 0; i < sample.length; i++) {
+            sample[i] = values[random.nextInt(values.length)];
+        }
+        Arrays.sort(sample, comparator);
+        // drop duplicate splitters, so each equal-key bucket belongs to one value
+        var splitters = (T[]) new Object[buckets - 1];
+        var count = 0;
+        for (int i = 1; i < buckets; i++) {
+            var candidate = sample[i * OVERSAMPLING];
+            if (count == 0 || comparator.compare(splitters[count - 1], candidate) < 0) {
+                splitters[count++] = candidate;
+            }
+        }
+        return Arrays.copyOf(splitters, count);
+    }
+
+    private static <T> int bucketOf(T value, T[] splitters, Comparator<? super T> comparator) {
+        var lo = 0;
+        var hi = splitters.length;
+        // first splitter >= value
+        while (lo < hi) {
+            var mid = (lo + hi) >>> 1;
+            if (comparator.compare(splitters[mid], value) < 0) lo = mid + 1;
+            else hi = mid;
+        }
+        return lo < splitters.length && comparator.compare(splitters[lo], value) == 0 ? 2 * lo + 1 : 2 * lo;
+    }
+}
@@ -0,0 +1,283 @@
+package app.patterns.divide_conquer;
+
+
+import app.patterns.ThreadSafe;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.DoubleBinaryOperator;
+import java.util.function.IntBinaryOperator;
+import java.util.function.IntConsumer;
+import java.util.function.LongBinaryOperator;
+
+/*
+ * Pattern: Parallel Divide and Conquer
+ *
+ * Example: Parallel prefix sum (scan)
+ *
+ * Inclusive and exclusive scans with any associative operator, in two passes
+ * over blocks sized to stay in cache (64 KB of elements):
+ *
+ * - Up-sweep: every block is reduced in parallel to one partial.
+ * - The block partials, a few thousand at most, are scanned sequentially into
+ *   the offset each block starts from.
+ * - Down-sweep: every block is scanned in parallel, starting from its offset.
+ *
+ * Each element is read twice and written once. src and dest may be the same
+ * array for an in-place scan. Inputs of fewer than two blocks are scanned on the
+ * calling thread. For double, the result can differ from a sequential scan in
+ * rounding, since the operations are grouped differently.
+ */
+@ThreadSafe
+public class ParallelScan {
+
+    private static final int BLOCK_BYTES = 1 << 16;
+    private static final int MIN_BLOCK_ELEMENTS = 1 << 10;
+    // aim for at least this many blocks per worker, so blocks balance
+    private static final int BLOCKS_PER_WORKER = 4;
+
+    private final ForkJoinPool pool;
+
+    public ParallelScan() {
+        this(ForkJoinPool.commonPool());
+    }
+
+    public ParallelScan(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    // dest[i] = src[0] op ... op src[i]
+    public void inclusive(int[] src, int[] dest, IntBinaryOperator op) {
+        scan(src, dest, false, 0, op);
+    }
+
+    // dest[i] = identity op src[0] op ... op src[i - 1]
+    public void exclusive(int[] src, int[] dest, int identity, IntBinaryOperator op) {
+        scan(src, dest, true, identity, op);
+    }
+
+    public void inclusive(long[] src, long[] dest, LongBinaryOperator op) {
+        scan(src, dest, false, 0, op);
+    }
+
+    public void exclusive(long[] src, long[] dest, long identity, LongBinaryOperator op) {
+        scan(src, dest, true, identity, op);
+    }
+
+    public void inclusive(double[] src, double[] dest, DoubleBinaryOperator op) {
+        scan(src, dest, false, 0, op);
+    }
+
+    public void exclusive(double[] src, double[] dest, double identity, DoubleBinaryOperator op) {
+        scan(src, dest, true, identity, op);
+    }
+
+    private void scan(int[] src, int[] dest, boolean exclusive, int identity, IntBinaryOperator op) {
+        checkLengths(src.length, dest.length);
+        var n = src.length;
+        var block = blockSize(n, Integer.BYTES);
+        var blocks = (n + block - 1) / block;
+        if (blocks < 2) {
+            scanBlock(src, dest, 0, n, exclusive, identity, exclusive, op);
+            return;
+        }
+        // up-sweep: each block but the last reduced to its partial
+        var partials = new int[blocks];
+        forEachBlock(blocks - 1, b -> {
+            var from = b * block;
+            var acc = src[from];
+            for (int i = from + 1, to = from + block; i < to; i++) {
+                acc = op.applyAsInt(acc, src[i]);
+            }
+            partials[b] = acc;
+        });
+        // offsets[b] combines everything before block b; block 0 starts from identity, if any
+        var offsets = new int[blocks];
+        offsets[0] = identity;
+        offsets[1] = exclusive ? op.applyAsInt(identity, partials[0]) : partials[0];
+        for (int b = 2; b < blocks; b++) {
+            offsets[b] = op.applyAsInt(offsets[b - 1], partials[b - 1]);
+        }
+        // down-sweep
+        forEachBlock(blocks, b -> scanBlock(src, dest, b * block, Math.min(n, (b + 1) * block),
+                exclusive, offsets[b], b > 0 || exclusive, op));
+    }
+
+    private void scan(long[] src, long[] dest, boolean exclusive, long identity, LongBinaryOperator op) {
+        checkLengths(src.length, dest.length);
+        var n = src.length;
+        var block = blockSize(n, Long.BYTES);
+        var blocks = (n + block - 1) / block;
+        if (blocks < 2) {
+            scanBlock(src, dest, 0, n, exclusive, identity, exclusive, op);
+            return;
+        }
+        var partials = new long[blocks];
+        forEachBlock(blocks - 1, b -> {
+            var from = b * block;
+            var acc = src[from];
+            for (int i = from + 1, to = from + block; i < to; i++) {
+                acc = op.applyAsLong(acc, src[i]);
+            }
+            partials[b] = acc;
+        });
+        var offsets = new long[blocks];
+        offsets[0] = identity;
+        offsets[1] = exclusive ? op.applyAsLong(identity, partials[0]) : partials[0];
+        for (int b = 2; b < blocks; b++) {
+            offsets[b] = op.applyAsLong(offsets[b - 1], partials[b - 1]);
+        }
+        forEachBlock(blocks, b -> scanBlock(src, dest, b * block, Math.min(n, (b + 1) * block),
+                exclusive, offsets[b], b > 0 || exclusive, op));
+    }
+
+    private void scan(double[] src, double[] dest, boolean exclusive, double identity, DoubleBinaryOperator op) {
+        checkLengths(src.length, dest.length);
+        var n = src.length;
+        var block = blockSize(n, Double.BYTES);
+        var blocks = (n + block - 1) / block;
+        if (blocks < 2) {
+            scanBlock(src, dest, 0, n, exclusive, identity, exclusive, op);
+            return;
+        }
+        var partials = new double[blocks];
+        forEachBlock(blocks - 1, b -> {
+            var from = b * block;
+            var acc = src[from];
+            for (int i = from + 1, to = from + block; i < to; i++) {
+                acc = op.applyAsDouble(acc, src[i]);
+            }
+            partials[b] = acc;
+        });
+        var offsets = new double[blocks];
+        offsets[0] = identity;
+        offsets[1] = exclusive ? op.applyAsDouble(identity, partials[0]) : partials[0];
+        for (int b = 2; b < blocks; b++) {
+            offsets[b] = op.applyAsDouble(offsets[b - 1], partials[b - 1]);
+        }
+        forEachBlock(blocks, b -> scanBlock(src, dest, b * block, Math.min(n, (b + 1) * block),
+                exclusive, offsets[b], b > 0 || exclusive, op));
+    }
+
+    /*
+     * Just showing how to use the scan and some really dummy benchmark against
+     * a sequential loop and Arrays.parallelPrefix. Don't take it seriously.
+     */
+    public static void main(String[] args) {
+        var values = new long[50_000_000];
+        Arrays.fill(values, 1);
+        var scan = new ParallelScan();
+        for (int round = 0; round < 3; round++) {
+            var sequential = values.clone();
+            dummyBenchmark("Sequential", () -> {
+                for (int i = 1; i < sequential.length; i++) {
+                    sequential[i] += sequential[i - 1];
+                }
+            });
+            var prefix = values.clone();
+            dummyBenchmark("Arrays.parallelPrefix", () -> Arrays.parallelPrefix(prefix, Long::sum));
+            var scanned = values.clone();
+            dummyBenchmark("ParallelScan.inclusive", () -> scan.inclusive(scanned, scanned, Long::sum));
+            System.out.println("Same result: " + Arrays.equals(sequential, scanned) + "\n");
+        }
+    }
+
+    static void dummyBenchmark(String name, Runnable runnable) {
+        var before = System.currentTimeMillis();
+        runnable.run();
+        var after = System.currentTimeMillis();
+        System.out.println(name + " executed in: " + (after - before));
+    }
+
+    // Scans [from, to), starting from offset when hasOffset; reads src[i] before writing dest[i]
+    private static void scanBlock(int[] src, int[] dest, int from, int to, boolean exclusive,
+                                  int offset, boolean hasOffset, IntBinaryOperator op) {
+        if (from == to) {
+            return;
+        }
+        var i = from;
+        var acc = offset;
+        if (!hasOffset) {
+            acc = src[i];
+            dest[i++] = acc;
+        }
+        if (exclusive) {
+            for (; i < to; i++) {
+                var value = src[i];
+                dest[i] = acc;
+                acc = op.applyAsInt(acc, value);
+            }
+        } else {
+            for (; i < to; i++) {
+                acc = op.applyAsInt(acc, src[i]);
+                dest[i] = acc;
+            }
+        }
+    }
+
+    private static void scanBlock(long[] src, long[] dest, int from, int to, boolean exclusive,
+                                  long offset, boolean hasOffset, LongBinaryOperator op) {
+        if (from == to) {
+            return;
+        }
+        var i = from;
+        var acc = offset;
+        if (!hasOffset) {
+            acc = src[i];
+            dest[i++] = acc;
+        }
+        if (exclusive) {
+            for (; i < to; i++) {
+                var value = src[i];
+                dest[i] = acc;
+                acc = op.applyAsLong(acc, value);
+            }
+        } else {
+            for (; i < to; i++) {
+                acc = op.applyAsLong(acc, src[i]);
+                dest[i] = acc;
+            }
+        }
+    }
+
+    private static void scanBlock(double[] src, double[] dest, int from, int to, boolean exclusive,
+                                  double offset, boolean hasOffset, DoubleBinaryOperator op) {
+        if (from == to) {
+            return;
+        }
+        var i = from;
+        var acc = offset;
+        if (!hasOffset) {
+            acc = src[i];
+            dest[i++] = acc;
+        }
+        if (exclusive) {
+            for (; i < to; i++) {
+                var value = src[i];
+                dest[i] = acc;
+                acc = op.applyAsDouble(acc, value);
+            }
+        } else {
+            for (; i < to; i++) {
+                acc = op.applyAsDouble(acc, src[i]);
+                dest[i] = acc;
+            }
+        }
+    }
+
+    private int blockSize(int n, int elementBytes) {
+        var byCache = BLOCK_BYTES / elementBytes;
+        var byBalance = n / (pool.getParallelism() * BLOCKS_PER_WORKER);
+        return Math.max(MIN_BLOCK_ELEMENTS, Math.min(byCache, byBalance));
+    }
+
+    private void forEachBlock(int blocks, IntConsumer step) {
+        BlockRange.forEach(pool, blocks, step);
+    }
+
+    private static void checkLengths(int src, int dest) {
+        if (src != dest) {
+            throw new IllegalArgumentException("src and dest lengths differ: " + src + " != " + dest);
+        }
+    }
+}
@@ -19,19 +19,22 @@ import java.util.stream.LongStream;
 public class ParallelSum extends RecursiveTask<BigInteger> {
 
     private static final long serialVersionUID = 1L;
-    private final static int THRESHOLD = 10_000; // Choosing a number to split the computation
+    private final static AdaptiveSplitPolicy SPLIT = new AdaptiveSplitPolicy(10_000); // Decides when to split the computation
 
     private List<BigInteger> nums;
 
     public ParallelSum(List<BigInteger> nums) {
-        this.nums = nums;
+        this.nums = RandomAccessAdapter.of(nums);
     }
 
     @Override
     protected BigInteger compute() {
         var size = nums.size();
-        if (size < THRESHOLD) {
-            return sequentialSum(nums);
+        if (!SPLIT.shouldSplit(size)) {
+            var start = SPLIT.leafStart();
+            var sum = sequentialSum(nums);
+            SPLIT.recordLeaf(size, start);
+            return sum;
         } else {
             var x = new ParallelSum(nums.subList(0, size / 2));
             var y = new ParallelSum(nums.subList(size / 2, size));
@@ -0,0 +1,312 @@
+package app.patterns.divide_conquer;
+
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/*
+ * Pattern: Parallel Divide and Conquer
+ *
+ * Example: Parallel merge sort on int[] and long[]
+ *
+ * Allocates one scratch buffer per sort, a copy of the input, and nothing per
+ * level: each level merges from one array into the other and the next level up
+ * swaps their roles (ping-pong), so the result of the top merge lands in the
+ * caller's array. Small runs are insertion sorted in place. Halves are sorted
+ * in parallel, and large merges are split too: the middle element of the longer
+ * run is located in the shorter one by binary search, and both sides merge in
+ * parallel. Forking is decided by AdaptiveSplitPolicy, one per phase.
+ */
+public class PrimitiveMergeSort {
+
+    private static final int INSERTION_SORT_THRESHOLD = 32;
+    private static final AdaptiveSplitPolicy SORT_SPLIT = new AdaptiveSplitPolicy(1 << 13);
+    private static final AdaptiveSplitPolicy MERGE_SPLIT = new AdaptiveSplitPolicy(1 << 13);
+    // Merges no larger than this are never split: the longer run then has at least two elements, so its
+    // middle lies strictly inside it and both halves shrink, whatever the measured leaf size drops to
+    private static final int MIN_MERGE_SPLIT = INSERTION_SORT_THRESHOLD;
+
+    public static void sort(int[] values) {
+        sort(values, ForkJoinPool.commonPool());
+    }
+
+    public static void sort(int[] values, ForkJoinPool pool) {
+        if (values.length < 2) {
+            return;
+        }
+        pool.invoke(new IntSortTask(values.clone(), values, 0, values.length));
+    }
+
+    public static void sort(long[] values) {
+        sort(values, ForkJoinPool.commonPool());
+    }
+
+    public static void sort(long[] values, ForkJoinPool pool) {
+        if (values.length < 2) {
+            return;
+        }
+        pool.invoke(new LongSortTask(values.clone(), values, 0, values.length));
+    }
+
+    // Sorts [from, to) into dest; src holds the same elements there and is used as scratch
+    private static class IntSortTask extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+        private final int[] src;
+        private final int[] dest;
+        private final int from;
+        private final int to;
+
+        IntSortTask(int[] src, int[] dest, int from, int to) {
+            this.src = src;
+            this.dest = dest;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            var size = to - from;
+            if (!SORT_SPLIT.shouldSplit(size)) {
+                var start = SORT_SPLIT.leafStart();
+                sequentialSort(src, dest, from, to);
+                SORT_SPLIT.recordLeaf(size, start);
+                return;
+            }
+            var mid = (from + to) >>> 1;
+            // the halves are sorted into src, with dest as their scratch
+            invokeAll(new IntSortTask(dest, src, from, mid), new IntSortTask(dest, src, mid, to));
+            new IntMergeTask(src, from, mid, mid, to, dest, from).compute();
+        }
+    }
+
+    // Merges the sorted runs src[lo1, hi1) and src[lo2, hi2) into dest starting at at
+    private static class IntMergeTask extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+        private final int[] src;
+        private final int lo1;
+        private final int hi1;
+        private final int lo2;
+        private final int hi2;
+        private final int[] dest;
+        private final int at;
+
+        IntMergeTask(int[] src, int lo1, int hi1, int lo2, int hi2, int[] dest, int at) {
+            this.src = src;
+            this.lo1 = lo1;
+            this.hi1 = hi1;
+            this.lo2 = lo2;
+            this.hi2 = hi2;
+            this.dest = dest;
+            this.at = at;
+        }
+
+        @Override
+        protected void compute() {
+            var size = (hi1 - lo1) + (hi2 - lo2);
+            if (size <= MIN_MERGE_SPLIT || !MERGE_SPLIT.shouldSplit(size)) {
+                var start = MERGE_SPLIT.leafStart();
+                merge(src, lo1, hi1, lo2, hi2, dest, at);
+                MERGE_SPLIT.recordLeaf(size, start);
+                return;
+            }
+            // split the longer run in the middle, and the shorter one where that element would go
+            int mid1, mid2;
+            if (hi1 - lo1 >= hi2 - lo2) {
+                mid1 = (lo1 + hi1) >>> 1;
+                mid2 = lowerBound(src, lo2, hi2, src[mid1]);
+            } else {
+                mid2 = (lo2 + hi2) >>> 1;
+                mid1 = upperBound(src, lo1, hi1, src[mid2]);
+            }
+            var rightAt = at + (mid1 - lo1) + (mid2 - lo2);
+            invokeAll(new IntMergeTask(src, lo1, mid1, lo2, mid2, dest, at),
+                    new IntMergeTask(src, mid1, hi1, mid2, hi2, dest, rightAt));
+        }
+    }
+
+    private static class LongSortTask extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+        private final long[] src;
+        private final long[] dest;
+        private final int from;
+        private final int to;
+
+        LongSortTask(long[] src, long[] dest, int from, int to) {
+            this.src = src;
+            this.dest = dest;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            var size = to - from;
+            if (!SORT_SPLIT.shouldSplit(size)) {
+                var start = SORT_SPLIT.leafStart();
+                sequentialSort(src, dest, from, to);
+                SORT_SPLIT.recordLeaf(size, start);
+                return;
+            }
+            var mid = (from + to) >>> 1;
+            invokeAll(new LongSortTask(dest, src, from, mid), new LongSortTask(dest, src, mid, to));
+            new LongMergeTask(src, from, mid, mid, to, dest, from).compute();
+        }
+    }
+
+    private static class LongMergeTask extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+        private final long[] src;
+        private final int lo1;
+        private final int hi1;
+        private final int lo2;
+        private final int hi2;
+        private final long[] dest;
+        private final int at;
+
+        LongMergeTask(long[] src, int lo1, int hi1, int lo2, int hi2, long[] dest, int at) {
+            this.src = src;
+            this.lo1 = lo1;
+            this.hi1 = hi1;
+            this.lo2 = lo2;
+            this.hi2 = hi2;
+            this.dest = dest;
+            this.at = at;
+        }
+
+        @Override
+        protected void compute() {
+            var size = (hi1 - lo1) + (hi2 - lo2);
+            if (size <= MIN_MERGE_SPLIT || !MERGE_SPLIT.shouldSplit(size)) {
+                var start = MERGE_SPLIT.leafStart();
+                merge(src, lo1, hi1, lo2, hi2, dest, at);
+                MERGE_SPLIT.recordLeaf(size, start);
+                return;
+            }
+            int mid1, mid2;
+            if (hi1 - lo1 >= hi2 - lo2) {
+                mid1 = (lo1 + hi1) >>> 1;
+                mid2 = lowerBound(src, lo2, hi2, src[mid1]);
+            } else {
+                mid2 = (lo2 + hi2) >>> 1;
+                mid1 = upperBound(src, lo1, hi1, src[mid2]);
+            }
+            var rightAt = at + (mid1 - lo1) + (mid2 - lo2);
+            invokeAll(new LongMergeTask(src, lo1, mid1, lo2, mid2, dest, at),
+                    new LongMergeTask(src, mid1, hi1, mid2, hi2, dest, rightAt));
+        }
+    }
+
+    // Same ping-pong as the tasks, on the current thread
+    static void sequentialSort(int[] src, int[] dest, int from, int to) {
+        if (to - from <= INSERTION_SORT_THRESHOLD) {
+            insertionSort(dest, from, to);
+            return;
+        }
+        var mid = (from + to) >>> 1;
+        sequentialSort(dest, src, from, mid);
+        sequentialSort(dest, src, mid, to);
+        if (src[mid - 1] <= src[mid]) {
+            // already in order, nothing to merge
+            System.arraycopy(src, from, dest, from, to - from);
+            return;
+        }
+        merge(src, from, mid, mid, to, dest, from);
+    }
+
+    static void sequentialSort(long[] src, long[] dest, int from, int to) {
+        if (to - from <= INSERTION_SORT_THRESHOLD) {
+            insertionSort(dest, from, to);
+            return;
+        }
+        var mid = (from + to) >>> 1;
+        sequentialSort(dest, src, from, mid);
+        sequentialSort(dest, src, mid, to);
+        if (src[mid - 1] <= src[mid]) {
+            System.arraycopy(src, from, dest, from, to - from);
+            return;
+        }
+        merge(src, from, mid, mid, to, dest, from);
+    }
+
+    private static void merge(int[] src, int lo1, int hi1, int lo2, int hi2, int[] dest, int at) {
+        while (lo1 < hi1 && lo2 < hi2) {
+            dest[at++] = src[lo1] <= src[lo2] ? src[lo1++] : src[lo2++];
+        }
+        System.arraycopy(src, lo1, dest, at, hi1 - lo1);
+        System.arraycopy(src, lo2, dest, at + hi1 - lo1, hi2 - lo2);
+    }
+
+    private static void merge(long[] src, int lo1, int hi1, int lo2, int hi2, long[] dest, int at) {
+        while (lo1 < hi1 && lo2 < hi2) {
+            dest[at++] = src[lo1] <= src[lo2] ? src[lo1++] : src[lo2++];
+        }
+        System.arraycopy(src, lo1, dest, at, hi1 - lo1);
+        System.arraycopy(src, lo2, dest, at + hi1 - lo1, hi2 - lo2);
+    }
+
+    private static void insertionSort(int[] values, int from, int to) {
+        for (int i = from + 1; i < to; i++) {
+            var value = values[i];
+            var j = i - 1;
+            while (j >= from && values[j] > value) {
+                values[j + 1] = values[j];
+                j--;
+            }
+            values[j + 1] = value;
+        }
+    }
+
+    private static void insertionSort(long[] values, int from, int to) {
+        for (int i = from + 1; i < to; i++) {
+            var value = values[i];
+            var j = i - 1;
+            while (j >= from && values[j] > value) {
+                values[j + 1] = values[j];
+                j--;
+            }
+            values[j + 1] = value;
+        }
+    }
+
+    // first index in [lo, hi) whose value is >= key
+    private static int lowerBound(int[] values, int lo, int hi, int key) {
+        while (lo < hi) {
+            var mid = (lo + hi) >>> 1;
+            if (values[mid] < key) lo = mid + 1;
+            else hi = mid;
+        }
+        return lo;
+    }
+
+    // first index in [lo, hi) whose value is > key
+    private static int upperBound(int[] values, int lo, int hi, int key) {
+        while (lo < hi) {
+            var mid = (lo + hi) >>> 1;
+            if (values[mid] <= key) lo = mid + 1;
+            else hi = mid;
+        }
+        return lo;
+    }
+
+    private static int lowerBound(long[] values, int lo, int hi, long key) {
+        while (lo < hi) {
+            var mid = (lo + hi) >>> 1;
+            if (values[mid] < key) lo = mid + 1;
+            else hi = mid;
+        }
+        return lo;
+    }
+
+    private static int upperBound(long[] values, int lo, int hi, long key) {
+        while (lo < hi) {
+            var mid = (lo + hi) >>> 1;
+            if (values[mid] <= key) lo = mid + 1;
+            else hi = mid;
+        }
+        return lo;
+    }
+}
@@ -0,0 +1,32 @@
+package app.patterns.divide_conquer;
+
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.RandomAccess;
+
+/*
+ * Pattern: Parallel Divide and Conquer
+ *
+ * List splitting in O(1)
+ *
+ * Fork/join over a List splits with subList and size, and leaves often index
+ * with get. On a LinkedList each of those walks the list: every split costs
+ * O(n), every get O(n), and splitting all the way down is quadratic.
+ *
+ * of(list) returns RandomAccess lists as they are and copies any other list
+ * once, in one pass of its iterator, into an ArrayList. Sublists of an
+ * ArrayList are views sharing its array, RandomAccess themselves, so the
+ * recursive calls get them back unchanged and every split and get is O(1).
+ * The copy holds references only: no element is copied or unboxed, and the
+ * task sees the list as it was at that point.
+ */
+public class RandomAccessAdapter {
+
+    private RandomAccessAdapter() {
+    }
+
+    public static <T> List<T> of(List<T> list) {
+        return list instanceof RandomAccess ? list : new ArrayList<>(list);
+    }
+}
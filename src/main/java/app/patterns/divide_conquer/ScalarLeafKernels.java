@@ -0,0 +1,129 @@
+package app.patterns.divide_conquer;
+
+
+/*
+ * Plain loops, used when the Vector API is not available. The JIT may still
+ * vectorize some of them (e.g. int sums), but not double sums, which it has
+ * to add in order.
+ */
+final class ScalarLeafKernels extends LeafKernels {
+
+    static final ScalarLeafKernels INSTANCE = new ScalarLeafKernels();
+
+    private ScalarLeafKernels() {
+    }
+
+    @Override
+    public int sum(int[] values, int from, int to) {
+        var sum = 0;
+        for (int i = from; i < to; i++) {
+            sum += values[i];
+        }
+        return sum;
+    }
+
+    @Override
+    public long sum(long[] values, int from, int to) {
+        var sum = 0L;
+        for (int i = from; i < to; i++) {
+            sum += values[i];
+        }
+        return sum;
+    }
+
+    @Override
+    public double sum(double[] values, int from, int to) {
+        var sum = 0.0;
+        for (int i = from; i < to; i++) {
+            sum += values[i];
+        }
+        return sum;
+    }
+
+    @Override
+    public int min(int[] values, int from, int to) {
+        var min = Integer.MAX_VALUE;
+        for (int i = from; i < to; i++) {
+            min = Math.min(min, values[i]);
+        }
+        return min;
+    }
+
+    @Override
+    public long min(long[] values, int from, int to) {
+        var min = Long.MAX_VALUE;
+        for (int i = from; i < to; i++) {
+            min = Math.min(min, values[i]);
+        }
+        return min;
+    }
+
+    @Override
+    public double min(double[] values, int from, int to) {
+        var min = Double.POSITIVE_INFINITY;
+        for (int i = from; i < to; i++) {
+            min = Math.min(min, values[i]);
+        }
+        return min;
+    }
+
+    @Override
+    public int max(int[] values, int from, int to) {
+        var max = Integer.MIN_VALUE;
+        for (int i = from; i < to; i++) {
+            max = Math.max(max, values[i]);
+        }
+        return max;
+    }
+
+    @Override
+    public long max(long[] values, int from, int to) {
+        var max = Long.MIN_VALUE;
+        for (int i = from; i < to; i++) {
+            max = Math.max(max, values[i]);
+        }
+        return max;
+    }
+
+    @Override
+    public double max(double[] values, int from, int to) {
+        var max = Double.NEGATIVE_INFINITY;
+        for (int i = from; i < to; i++) {
+            max = Math.max(max, values[i]);
+        }
+        return max;
+    }
+
+    @Override
+    public long count(int[] values, int from, int to, Comparison comparison, int operand) {
+        var count = 0L;
+        for (int i = from; i < to; i++) {
+            if (comparison.test(values[i], operand)) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    @Override
+    public long count(long[] values, int from, int to, Comparison comparison, long operand) {
+        var count = 0L;
+        for (int i = from; i < to; i++) {
+            if (comparison.test(values[i], operand)) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    @Override
+    public long count(double[] values, int from, int to, Comparison comparison, double operand) {
+        var count = 0L;
+        for (int i = from; i < to; i++) {
+            if (comparison.test(values[i], operand)) {
+                count++;
+            }
+        }
+        return count;
+    }
+}
@@ -0,0 +1,233 @@
+package app.patterns.divide_conquer;
+
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.LongVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/*
+ * SIMD kernels on the preferred species (the widest vectors the CPU has, e.g.
+ * 8 ints with AVX2). The body of the range is folded lane-wise into one vector,
+ * reduced across lanes at the end, and the tail finished with scalar code.
+ * Only loaded through LeafKernels.best() when jdk.incubator.vector is present.
+ */
+final class VectorLeafKernels extends LeafKernels {
+
+    private static final VectorSpecies<Integer> INTS = IntVector.SPECIES_PREFERRED;
+    private static final VectorSpecies<Long> LONGS = LongVector.SPECIES_PREFERRED;
+    private static final VectorSpecies<Double> DOUBLES = DoubleVector.SPECIES_PREFERRED;
+
+    @Override
+    public int sum(int[] values, int from, int to) {
+        var acc = IntVector.zero(INTS);
+        var i = from;
+        for (int bound = from + INTS.loopBound(to - from); i < bound; i += INTS.length()) {
+            acc = acc.add(IntVector.fromArray(INTS, values, i));
+        }
+        var sum = acc.reduceLanes(VectorOperators.ADD);
+        for (; i < to; i++) {
+            sum += values[i];
+        }
+        return sum;
+    }
+
+    @Override
+    public long sum(long[] values, int from, int to) {
+        var acc = LongVector.zero(LONGS);
+        var i = from;
+        for (int bound = from + LONGS.loopBound(to - from); i < bound; i += LONGS.length()) {
+            acc = acc.add(LongVector.fromArray(LONGS, values, i));
+        }
+        var sum = acc.reduceLanes(VectorOperators.ADD);
+        for (; i < to; i++) {
+            sum += values[i];
+        }
+        return sum;
+    }
+
+    @Override
+    public double sum(double[] values, int from, int to) {
+        var acc = DoubleVector.zero(DOUBLES);
+        var i = from;
+        for (int bound = from + DOUBLES.loopBound(to - from); i < bound; i += DOUBLES.length()) {
+            acc = acc.add(DoubleVector.fromArray(DOUBLES, values, i));
+        }
+        var sum = acc.reduceLanes(VectorOperators.ADD);
+        for (; i < to; i++) {
+            sum += values[i];
+        }
+        return sum;
+    }
+
+    @Override
+    public int min(int[] values, int from, int to) {
+        var acc = IntVector.broadcast(INTS, Integer.MAX_VALUE);
+        var i = from;
+        for (int bound = from + INTS.loopBound(to - from); i < bound; i += INTS.length()) {
+            acc = acc.min(IntVector.fromArray(INTS, values, i));
+        }
+        var min = acc.reduceLanes(VectorOperators.MIN);
+        for (; i < to; i++) {
+            min = Math.min(min, values[i]);
+        }
+        return min;
+    }
+
+    @Override
+    public long min(long[] values, int from, int to) {
+        var acc = LongVector.broadcast(LONGS, Long.MAX_VALUE);
+        var i = from;
+        for (int bound = from + LONGS.loopBound(to - from); i < bound; i += LONGS.length()) {
+            acc = acc.min(LongVector.fromArray(LONGS, values, i));
+        }
+        var min = acc.reduceLanes(VectorOperators.MIN);
+        for (; i < to; i++) {
+            min = Math.min(min, values[i]);
+        }
+        return min;
+    }
+
+    @Override
+    public double min(double[] values, int from, int to) {
+        var acc = DoubleVector.broadcast(DOUBLES, Double.POSITIVE_INFINITY);
+        var i = from;
+        for (int bound = from + DOUBLES.loopBound(to - from); i < bound; i += DOUBLES.length()) {
+            acc = acc.min(DoubleVector.fromArray(DOUBLES, values, i));
+        }
+        var min = acc.reduceLanes(VectorOperators.MIN);
+        for (; i < to; i++) {
+            min = Math.min(min, values[i]);
+        }
+        return min;
+    }
+
+    @Override
+    public int max(int[] values, int from, int to) {
+        var acc = IntVector.broadcast(INTS, Integer.MIN_VALUE);
+        var i = from;
+        for (int bound = from + INTS.loopBound(to - from); i < bound; i += INTS.length()) {
+            acc = acc.max(IntVector.fromArray(INTS, values, i));
+        }
+        var max = acc.reduceLanes(VectorOperators.MAX);
+        for (; i < to; i++) {
+            max = Math.max(max, values[i]);
+        }
+        return max;
+    }
+
+    @Override
+    public long max(long[] values, int from, int to) {
+        var acc = LongVector.broadcast(LONGS, Long.MIN_VALUE);
+        var i = from;
+        for (int bound = from + LONGS.loopBound(to - from); i < bound; i += LONGS.length()) {
+            acc = acc.max(LongVector.fromArray(LONGS, values, i));
+        }
+        var max = acc.reduceLanes(VectorOperators.MAX);
+        for (; i < to; i++) {
+            max = Math.max(max, values[i]);
+        }
+        return max;
+    }
+
+    @Override
+    public double max(double[] values, int from, int to) {
+        var acc = DoubleVector.broadcast(DOUBLES, Double.NEGATIVE_INFINITY);
+        var i = from;
+        for (int bound = from + DOUBLES.loopBound(to - from); i < bound; i += DOUBLES.length()) {
+            acc = acc.max(DoubleVector.fromArray(DOUBLES, values, i));
+        }
+        var max = acc.reduceLanes(VectorOperators.MAX);
+        for (; i < to; i++) {
+            max = Math.max(max, values[i]);
+        }
+        return max;
+    }
+
+    /*
+     * compare is only intrinsified when its operator is a constant in the compiled
+     * loop, which a parameter is not. So one pass counts values less than and
+     * equal to the operand with constant operators (and greater, for doubles,
+     * since NaN is none of the three), and every comparison is derived from
+     * those counts.
+     */
+    @Override
+    public long count(int[] values, int from, int to, Comparison comparison, int operand) {
+        var ones = IntVector.broadcast(INTS, 1);
+        var less = IntVector.zero(INTS);
+        var equal = IntVector.zero(INTS);
+        var i = from;
+        for (int bound = from + INTS.loopBound(to - from); i < bound; i += INTS.length()) {
+            var vector = IntVector.fromArray(INTS, values, i);
+            less = less.add(ones, vector.compare(VectorOperators.LT, operand));
+            equal = equal.add(ones, vector.compare(VectorOperators.EQ, operand));
+        }
+        var lessCount = less.reduceLanesToLong(VectorOperators.ADD);
+        var equalCount = equal.reduceLanesToLong(VectorOperators.ADD);
+        var count = select(comparison, i - from, lessCount, equalCount, i - from - lessCount - equalCount);
+        for (; i < to; i++) {
+            if (comparison.test(values[i], operand)) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    @Override
+    public long count(long[] values, int from, int to, Comparison comparison, long operand) {
+        var ones = LongVector.broadcast(LONGS, 1);
+        var less = LongVector.zero(LONGS);
+        var equal = LongVector.zero(LONGS);
+        var i = from;
+        for (int bound = from + LONGS.loopBound(to - from); i < bound; i += LONGS.length()) {
+            var vector = LongVector.fromArray(LONGS, values, i);
+            less = less.add(ones, vector.compare(VectorOperators.LT, operand));
+            equal = equal.add(ones, vector.compare(VectorOperators.EQ, operand));
+        }
+        var lessCount = less.reduceLanes(VectorOperators.ADD);
+        var equalCount = equal.reduceLanes(VectorOperators.ADD);
+        var count = select(comparison, i - from, lessCount, equalCount, i - from - lessCount - equalCount);
+        for (; i < to; i++) {
+            if (comparison.test(values[i], operand)) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    @Override
+    public long count(double[] values, int from, int to, Comparison comparison, double operand) {
+        var ones = DoubleVector.broadcast(DOUBLES, 1);
+        var less = DoubleVector.zero(DOUBLES);
+        var equal = DoubleVector.zero(DOUBLES);
+        var greater = DoubleVector.zero(DOUBLES);
+        var i = from;
+        for (int bound = from + DOUBLES.loopBound(to - from); i < bound; i += DOUBLES.length()) {
+            var vector = DoubleVector.fromArray(DOUBLES, values, i);
+            less = less.add(ones, vector.compare(VectorOperators.LT, operand));
+            equal = equal.add(ones, vector.compare(VectorOperators.EQ, operand));
+            greater = greater.add(ones, vector.compare(VectorOperators.GT, operand));
+        }
+        // exact: a lane counts at most 2^31 / lanes, far below 2^53
+        var count = select(comparison, i - from, (long) less.reduceLanes(VectorOperators.ADD),
+                (long) equal.reduceLanes(VectorOperators.ADD), (long) greater.reduceLanes(VectorOperators.ADD));
+        for (; i < to; i++) {
+            if (comparison.test(values[i], operand)) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private static long select(Comparison comparison, long total, long less, long equal, long greater) {
+        return switch (comparison) {
+            case LT -> less;
+            case LE -> less + equal;
+            case GT -> greater;
+            case GE -> greater + equal;
+            case EQ -> equal;
+            case NE -> total - equal;
+        };
+    }
+}
@@ -1,22 +1,28 @@
 package app.patterns.divide_conquer.task;
 
+import app.patterns.divide_conquer.AdaptiveSplitPolicy;
+import app.patterns.divide_conquer.RandomAccessAdapter;
+
 import java.util.List;
 import java.util.concurrent.RecursiveTask;
 
 public class IntSums {
-    private static final int THRESHOLD = 250;
+    private static final AdaptiveSplitPolicy SPLIT = new AdaptiveSplitPolicy(250);
 
     public static class Task extends RecursiveTask<Integer> {
         private final List<Integer> listValues;
 
         public Task(List<Integer> listValues) {
-            this.listValues = listValues;
+            this.listValues = RandomAccessAdapter.of(listValues);
         }
 
         @Override
         protected Integer compute() {
-            if (listValues.size() < THRESHOLD) {
-                return listValues.stream().reduce(0, Integer::sum);
+            if (!SPLIT.shouldSplit(listValues.size())) {
+                var start = SPLIT.leafStart();
+                int sum = listValues.stream().reduce(0, Integer::sum);
+                SPLIT.recordLeaf(listValues.size(), start);
+                return sum;
             } else {
                 int mid = listValues.size() / 2;
                 Task leftTask = new Task(listValues.subList(0, mid));
@@ -0,0 +1,80 @@
+package app.patterns.divide_conquer.task;
+
+import app.patterns.divide_conquer.ParallelRadixSort;
+import app.patterns.divide_conquer.ParallelSampleSort;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Random;
+
+/*
+ * ParallelRadixSort against Arrays.parallelSort on random 64-bit keys, and
+ * ParallelSampleSort against Arrays.parallelSort with a Comparator on uniform
+ * and skewed (most elements share a few values) boxed keys.
+ * Pass the number of keys as first argument (default 10M); hundreds of millions
+ * need a heap of about 3 times 8 bytes per key.
+ * Dummy benchmark, run it on your machine.
+ */
+public class LargeSortBenchmark {
+
+    private static final int BOXED_SIZE = 2_000_000;
+
+    public static void main(String[] args) {
+        var size = args.length > 0 ? Integer.parseInt(args[0]) : 10_000_000;
+        var random = new Random(42);
+        var keys = random.longs(size).toArray();
+
+        var uniform = new Long[BOXED_SIZE];
+        var skewed = new Long[BOXED_SIZE];
+        for (int i = 0; i < BOXED_SIZE; i++) {
+            uniform[i] = random.nextLong();
+            // 90% of the keys are one of 4 values
+            skewed[i] = random.nextInt(10) < 9 ? (long) random.nextInt(4) : random.nextLong();
+        }
+        Comparator<Long> comparator = Long::compare;
+
+        for (int round = 0; round < 3; round++) {
+            System.out.println("#### " + size + " keys, round " + round);
+            dummyBenchmark("ParallelRadixSort long[]", keys, ParallelRadixSort::sort);
+            dummyBenchmark("Arrays.parallelSort long[]", keys, Arrays::parallelSort);
+            System.out.println("#### " + BOXED_SIZE + " boxed keys");
+            dummyBenchmark("ParallelSample uniform", uniform, values -> ParallelSampleSort.sort(values, comparator), comparator);
+            dummyBenchmark("Arrays.parallelSort uniform", uniform, values -> Arrays.parallelSort(values, comparator), comparator);
+            dummyBenchmark("ParallelSample skewed", skewed, values -> ParallelSampleSort.sort(values, comparator), comparator);
+            dummyBenchmark("Arrays.parallelSort skewed", skewed, values -> Arrays.parallelSort(values, comparator), comparator);
+            System.out.println();
+        }
+    }
+
+    private interface LongSort {
+        void sort(long[] values);
+    }
+
+    private interface ObjectSort<T> {
+        void sort(T[] values);
+    }
+
+    private static void dummyBenchmark(String name, long[] keys, LongSort sort) {
+        var copy = keys.clone();
+        var before = System.currentTimeMillis();
+        sort.sort(copy);
+        var after = System.currentTimeMillis();
+        var sorted = true;
+        for (int i = 1; i < copy.length && sorted; i++) {
+            sorted = copy[i - 1] <= copy[i];
+        }
+        System.out.println(name + ": " + (after - before) + " ms, sorted " + sorted);
+    }
+
+    private static <T> void dummyBenchmark(String name, T[] keys, ObjectSort<T> sort, Comparator<? super T> comparator) {
+        var copy = keys.clone();
+        var before = System.currentTimeMillis();
+        sort.sort(copy);
+        var after = System.currentTimeMillis();
+        var sorted = true;
+        for (int i = 1; i < copy.length && sorted; i++) {
+            sorted = comparator.compare(copy[i - 1], copy[i]) <= 0;
+        }
+        System.out.println(name + ": " + (after - before) + " ms, sorted " + sorted);
+    }
+}
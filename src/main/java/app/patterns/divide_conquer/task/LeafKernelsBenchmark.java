@@ -0,0 +1,83 @@
+package app.patterns.divide_conquer.task;
+
+import app.patterns.divide_conquer.AdaptiveSplitPolicy;
+import app.patterns.divide_conquer.LeafKernels;
+import app.patterns.divide_conquer.LeafKernels.Comparison;
+import app.patterns.divide_conquer.ParallelReduce;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Supplier;
+
+/*
+ * Scalar against vector leaf kernels: first one thread looping over a 64K
+ * element leaf that stays in cache, which is what a kernel sees at the leaves,
+ * then ParallelReduce over 10M elements with each. Run with
+ * --add-modules jdk.incubator.vector, otherwise both sides are scalar. Vector
+ * code is very slow until the JIT compiles it, so only later rounds count.
+ * Dummy benchmark, don't take it seriously.
+ */
+public class LeafKernelsBenchmark {
+
+    private static final int LEAF = 1 << 16;
+    private static final int REPEATS = 2_000;
+    private static final int LARGE = 10_000_000;
+
+    public static void main(String[] args) {
+        var random = new Random(42);
+        var ints = random.ints(LARGE).toArray();
+        var longs = random.longs(LARGE).toArray();
+        var doubles = random.doubles(LARGE).toArray();
+        var scalar = LeafKernels.scalar();
+        var best = LeafKernels.best();
+        System.out.println("Best kernels: " + best.getClass().getSimpleName());
+
+        for (int round = 0; round < 3; round++) {
+            System.out.println("#### leaf of " + LEAF + " x " + REPEATS + ", round " + round);
+            for (var kernels : new LeafKernels[]{scalar, best}) {
+                var name = kernels.getClass().getSimpleName() + " ";
+                dummyBenchmark(name + "int sum", () -> repeat(() -> kernels.sum(ints, 0, LEAF)));
+                dummyBenchmark(name + "long min", () -> repeat(() -> kernels.min(longs, 0, LEAF)));
+                dummyBenchmark(name + "double sum", () -> repeat(() -> kernels.sum(doubles, 0, LEAF)));
+                dummyBenchmark(name + "double max", () -> repeat(() -> kernels.max(doubles, 0, LEAF)));
+                dummyBenchmark(name + "int count > 0",
+                        () -> repeat(() -> kernels.count(ints, 0, LEAF, Comparison.GT, 0)));
+                dummyBenchmark(name + "double count < 0.5",
+                        () -> repeat(() -> kernels.count(doubles, 0, LEAF, Comparison.LT, 0.5)));
+            }
+        }
+
+        var pool = ForkJoinPool.commonPool();
+        var scalarReduce = new ParallelReduce(pool, new AdaptiveSplitPolicy(1 << 12), scalar);
+        var bestReduce = new ParallelReduce(pool, new AdaptiveSplitPolicy(1 << 12), best);
+        var operatorReduce = new ParallelReduce();
+        for (int round = 0; round < 3; round++) {
+            System.out.println("#### ParallelReduce over " + LARGE + ", round " + round);
+            dummyBenchmark("reduce(int[], 0, Integer::sum)", () -> operatorReduce.reduce(ints, 0, Integer::sum));
+            dummyBenchmark("scalar sum(int[])", () -> scalarReduce.sum(ints));
+            dummyBenchmark("best sum(int[])", () -> bestReduce.sum(ints));
+            dummyBenchmark("scalar max(long[])", () -> scalarReduce.max(longs));
+            dummyBenchmark("best max(long[])", () -> bestReduce.max(longs));
+            dummyBenchmark("scalar sum(double[])", () -> scalarReduce.sum(doubles));
+            dummyBenchmark("best sum(double[])", () -> bestReduce.sum(doubles));
+            dummyBenchmark("scalar count(double[] < 0.5)", () -> scalarReduce.count(doubles, Comparison.LT, 0.5));
+            dummyBenchmark("best count(double[] < 0.5)", () -> bestReduce.count(doubles, Comparison.LT, 0.5));
+        }
+    }
+
+    // the last result, so the loop is not dead code
+    private static Object repeat(Supplier<Object> kernel) {
+        Object result = null;
+        for (int i = 0; i < REPEATS; i++) {
+            result = kernel.get();
+        }
+        return result;
+    }
+
+    private static void dummyBenchmark(String name, Supplier<Object> supplier) {
+        var before = System.currentTimeMillis();
+        var result = supplier.get();
+        var after = System.currentTimeMillis();
+        System.out.println(name + " = " + result + ", executed in: " + (after - before));
+    }
+}
@@ -0,0 +1,78 @@
+package app.patterns.divide_conquer.task;
+
+import app.patterns.divide_conquer.LongArraySum;
+import app.patterns.divide_conquer.ParallelSum;
+
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
+
+/*
+ * LongArraySum against ParallelSum (List<BigInteger>) and IntSums (List<Integer>)
+ * at 10M elements, then LongArraySum alone at 1B elements, which boxed lists
+ * cannot hold. The 1B run needs about 8 GB of heap (-Xmx9g) and is skipped
+ * otherwise. A direct LongBuffer is limited to 2^31 bytes, so it runs at 10M.
+ * IntSums overflows an int at these sizes, its result is only there for timing.
+ * Dummy benchmark, don't take it seriously.
+ */
+public class LongArraySumBenchmark {
+
+    private static final int SMALL = 10_000_000;
+    private static final int LARGE = 1_000_000_000;
+
+    public static void main(String[] args) {
+        var pool = ForkJoinPool.commonPool();
+        var values = LongStream.range(0, SMALL).toArray();
+        List<BigInteger> bigIntegers = LongStream.range(0, SMALL)
+                .mapToObj(BigInteger::valueOf)
+                .collect(Collectors.toList());
+        List<Integer> integers = IntStream.range(0, SMALL).boxed().collect(Collectors.toList());
+        var overflowing = overflowing(values);
+        var buffer = ByteBuffer.allocateDirect(SMALL * 8).asLongBuffer();
+        buffer.put(values).flip();
+
+        for (int round = 0; round < 3; round++) {
+            System.out.println("#### " + SMALL + " elements, round " + round);
+            dummyBenchmark("ParallelSum", () -> pool.invoke(new ParallelSum(bigIntegers)));
+            dummyBenchmark("IntSums", () -> pool.invoke(new IntSums.Task(integers)));
+            dummyBenchmark("LongArraySum long[]", () -> LongArraySum.sum(values, pool));
+            dummyBenchmark("LongArraySum direct LongBuffer", () -> LongArraySum.sum(buffer, pool));
+            dummyBenchmark("LongArraySum overflowing", () -> LongArraySum.sum(overflowing, pool));
+        }
+
+        var needed = 8L * LARGE;
+        if (Runtime.getRuntime().maxMemory() < needed + needed / 8) {
+            System.out.println("Skipping " + LARGE + " elements, run with -Xmx9g or more");
+            return;
+        }
+        var large = new long[LARGE];
+        for (int i = 0; i < LARGE; i++) {
+            large[i] = i;
+        }
+        for (int round = 0; round < 2; round++) {
+            System.out.println("#### " + LARGE + " elements, round " + round);
+            dummyBenchmark("LongArraySum long[]", () -> LongArraySum.sum(large, pool));
+        }
+    }
+
+    // every other element near Long.MAX_VALUE, so partial sums keep overflowing
+    private static long[] overflowing(long[] values) {
+        var copy = values.clone();
+        for (int i = 0; i < copy.length; i += 2) {
+            copy[i] = Long.MAX_VALUE - i;
+        }
+        return copy;
+    }
+
+    private static void dummyBenchmark(String name, Supplier<Object> sum) {
+        var before = System.currentTimeMillis();
+        var result = sum.get();
+        var after = System.currentTimeMillis();
+        System.out.println(name + " = " + result + ", executed in: " + (after - before));
+    }
+}
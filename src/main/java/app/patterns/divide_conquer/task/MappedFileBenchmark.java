@@ -0,0 +1,100 @@
+package app.patterns.divide_conquer.task;
+
+import app.patterns.divide_conquer.MappedRecordFile;
+import app.patterns.divide_conquer.MappedRecordFile.LongField;
+
+import java.io.IOException;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Supplier;
+
+/*
+ * Reductions over a file of 16-byte records (long id, long value), written to a
+ * temporary file first: MappedRecordFile against a sequential read through a
+ * heap ByteBuffer. The record count is the first argument, 16M (256 MB) by
+ * default; pass enough to exceed RAM to see it run out of core. The file is
+ * mapped in 64 MB segments so even the default size spans several of them.
+ * Dummy benchmark, don't take it seriously.
+ */
+public class MappedFileBenchmark {
+
+    private static final int RECORD_SIZE = 16;
+    private static final long SEGMENT_BYTES = 64L << 20;
+    private static final int BINS = 16;
+
+    public static void main(String[] args) throws IOException {
+        var records = args.length > 0 ? Long.parseLong(args[0]) : 16L << 20;
+        var file = Files.createTempFile("records", ".bin");
+        try {
+            write(file, records);
+            var mapped = new MappedRecordFile(file, RECORD_SIZE, ByteOrder.BIG_ENDIAN, SEGMENT_BYTES,
+                    ForkJoinPool.commonPool());
+            var value = LongField.int64(8);
+            System.out.println(records + " records in " + mapped.segments() + " segments");
+            for (int round = 0; round < 3; round++) {
+                System.out.println("#### round " + round);
+                dummyBenchmark("Sequential read sum", () -> sequentialSum(file));
+                dummyBenchmark("Mapped sum", () -> mapped.sum(value));
+                dummyBenchmark("Mapped min", () -> mapped.min(value).orElseThrow());
+                dummyBenchmark("Mapped max", () -> mapped.max(value).orElseThrow());
+                dummyBenchmark("Mapped histogram", () -> Arrays.toString(mapped.histogram(value, 0, 1000, BINS)));
+            }
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    // value = id % 1000, so the sum, min, max and histogram are easy to check
+    private static void write(Path file, long records) throws IOException {
+        try (var channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            var buffer = ByteBuffer.allocateDirect(RECORD_SIZE * 65536);
+            for (long id = 0; id < records; id++) {
+                buffer.putLong(id).putLong(id % 1000);
+                if (!buffer.hasRemaining()) {
+                    flush(channel, buffer);
+                }
+            }
+            flush(channel, buffer);
+        }
+    }
+
+    private static void flush(FileChannel channel, ByteBuffer buffer) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    private static BigInteger sequentialSum(Path file) {
+        try (var channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            var buffer = ByteBuffer.allocate(RECORD_SIZE * 65536);
+            var sum = 0L;
+            while (channel.read(buffer) >= 0) {
+                buffer.flip();
+                while (buffer.remaining() >= RECORD_SIZE) {
+                    sum += buffer.getLong(buffer.position() + 8);
+                    buffer.position(buffer.position() + RECORD_SIZE);
+                }
+                buffer.compact();
+            }
+            return BigInteger.valueOf(sum);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private static void dummyBenchmark(String name, Supplier<Object> supplier) {
+        var before = System.currentTimeMillis();
+        var result = supplier.get();
+        var after = System.currentTimeMillis();
+        System.out.println(name + " = " + result + ", executed in: " + (after - before));
+    }
+}
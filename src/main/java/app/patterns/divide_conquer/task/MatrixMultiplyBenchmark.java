@@ -0,0 +1,71 @@
+package app.patterns.divide_conquer.task;
+
+import app.patterns.divide_conquer.ParallelMatrixMultiply;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Supplier;
+import java.util.stream.IntStream;
+
+/*
+ * GFLOP/s of ParallelMatrixMultiply, plain and with B transposed, on pools of
+ * 1, 4 and all cores, against a naive i-j-p triple loop on one thread. Square
+ * matrices, the size is the first argument (1024 by default). Every result is
+ * checked against the naive one.
+ * Dummy benchmark, don't take it seriously.
+ */
+public class MatrixMultiplyBenchmark {
+
+    public static void main(String[] args) {
+        var size = args.length > 0 ? Integer.parseInt(args[0]) : 1024;
+        var random = new Random(42);
+        var a = random.doubles((long) size * size).toArray();
+        var b = random.doubles((long) size * size).toArray();
+        var bt = ParallelMatrixMultiply.transpose(b, size, size);
+        var flops = 2.0 * size * size * size;
+
+        var expected = dummyBenchmark("Naive triple loop", flops, () -> naive(a, b, size));
+        var cores = Runtime.getRuntime().availableProcessors();
+        for (int parallelism : IntStream.of(1, 4, cores).distinct().toArray()) {
+            var pool = new ForkJoinPool(parallelism);
+            var multiply = new ParallelMatrixMultiply(pool);
+            System.out.println("#### " + parallelism + " threads");
+            for (int round = 0; round < 3; round++) {
+                check(expected, dummyBenchmark("Blocked", flops, () -> multiply.multiply(a, b, size, size, size)));
+                check(expected, dummyBenchmark("Blocked, B transposed", flops,
+                        () -> multiply.multiplyTransposed(a, bt, size, size, size)));
+            }
+            pool.shutdown();
+        }
+    }
+
+    private static double[] naive(double[] a, double[] b, int size) {
+        var c = new double[size * size];
+        for (int i = 0; i < size; i++) {
+            for (int j = 0; j < size; j++) {
+                var sum = 0.0;
+                for (int p = 0; p < size; p++) {
+                    sum += a[i * size + p] * b[p * size + j];
+                }
+                c[i * size + j] = sum;
+            }
+        }
+        return c;
+    }
+
+    private static void check(double[] expected, double[] actual) {
+        for (int i = 0; i < expected.length; i++) {
+            if (Math.abs(expected[i] - actual[i]) > 1e-9 * Math.abs(expected[i])) {
+                throw new AssertionError("element " + i + ": " + actual[i] + " != " + expected[i]);
+            }
+        }
+    }
+
+    private static double[] dummyBenchmark(String name, double flops, Supplier<double[]> multiply) {
+        var before = System.nanoTime();
+        var result = multiply.get();
+        var nanos = System.nanoTime() - before;
+        System.out.printf("%s executed in: %d ms, %.2f GFLOP/s%n", name, nanos / 1_000_000, flops / nanos);
+        return result;
+    }
+}
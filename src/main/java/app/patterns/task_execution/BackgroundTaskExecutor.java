@@ -1,13 +1,21 @@
 package app.patterns.task_execution;
 
+import app.patterns.task_execution.instrumentation.ExecutorMetrics;
+
+import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
+import java.util.NoSuchElementException;
 import java.util.Optional;
 import java.util.concurrent.Callable;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CancellationException;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
 import java.util.concurrent.FutureTask;
+import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.TimeUnit;
 import java.util.function.Function;
 import java.util.stream.Collectors;
@@ -37,23 +45,100 @@ public class BackgroundTaskExecutor {
     }
 
     private final ExecutorService executor;
+    private final ExecutorMetrics metrics;
+    private final SingleFlight<Object> singleFlight = new SingleFlight<>();
 
     public BackgroundTaskExecutor(int threadsForTasks) {
-        this.executor = Executors.newFixedThreadPool(threadsForTasks);
+        this(threadsForTasks, ExecutionMode.PLATFORM);
+    }
+
+    public BackgroundTaskExecutor(int threadsForTasks, ExecutionMode mode) {
+        this(threadsForTasks, mode, null);
+    }
+
+    /**
+     * In VIRTUAL mode each task gets its own thread and threadsForTasks is the
+     * limit of tasks running at once, enforced by a semaphore. When metrics are
+     * given, every task is recorded under its task type.
+     */
+    public BackgroundTaskExecutor(int threadsForTasks, ExecutionMode mode, ExecutorMetrics metrics) {
+        this.metrics = metrics;
+        this.executor = mode == ExecutionMode.VIRTUAL
+                ? new SemaphoreBoundedExecutor(threadsForTasks, new LinkedBlockingQueue<>(),
+                SemaphoreBoundedExecutor.perTaskThreadFactory("BackgroundWorker-"))
+                : Executors.newFixedThreadPool(threadsForTasks);
     }
 
     public <T> Future<T> execute(Callable<T> task) {
-        var submited = executor.submit(task);
-        return submited;
+        return submitTask(null, task, null);
+    }
+
+    public <T> Future<T> executeAsType(String taskType, Callable<T> task) {
+        return submitTask(taskType, task, null);
+    }
+
+    /**
+     * Executes the task unless a task with the same key is already in flight, in
+     * which case that task's future is returned. The key is evicted once the task
+     * completes, or kept for the TTL set with setCoalescingTtl.
+     */
+    public <K, T> Future<T> execute(K key, Callable<T> task) {
+        var taskType = metrics == null ? null : ExecutorMetrics.typeOf(task);
+        return singleFlight.execute(key, task, command -> dispatch(taskType, command));
+    }
+
+    public void setCoalescingTtl(long ttl, TimeUnit timeUnit) {
+        singleFlight.setTtl(ttl, timeUnit);
     }
 
     public <T> List<Future<T>> execute(List<Callable<T>> tasks) {
         var futureTasks = tasks.stream()
-                .map(executor::submit)
+                .map(this::execute)
                 .collect(Collectors.toList());
         return futureTasks;
     }
 
+    // FutureTask that publishes itself to a completion queue once done
+    private static class CompletionFutureTask<T> extends ObservableFutureTask<T> {
+        private final BlockingQueue<Future<T>> completions;
+
+        CompletionFutureTask(Callable<T> callable, BlockingQueue<Future<T>> completions) {
+            super(callable);
+            this.completions = completions;
+        }
+
+        @Override
+        protected void done() {
+            super.done();
+            if (completions != null) {
+                completions.add(this);
+            }
+        }
+    }
+
+    private <T> Future<T> submitTask(String taskType, Callable<T> task, BlockingQueue<Future<T>> completions) {
+        var future = new CompletionFutureTask<>(task, completions);
+        dispatch(metrics == null || taskType != null ? taskType : ExecutorMetrics.typeOf(task), future);
+        return future;
+    }
+
+    private void dispatch(String taskType, Runnable command) {
+        if (metrics == null) {
+            executor.execute(command);
+        } else {
+            metrics.execute(executor, taskType, command);
+        }
+    }
+
+    /**
+     * Opens a task scope owned by the current thread whose subtasks run on this
+     * executor. Unlike cancel, shutting the scope down also reaches the scopes
+     * its subtasks opened.
+     */
+    public <T> TaskScope<T> openScope(TaskScope.Policy policy) {
+        return new TaskScope<>(policy, command -> dispatch(metrics == null ? null : ExecutorMetrics.typeOf(command), command));
+    }
+
     public <T> boolean cancel(Future<T> task) {
         var canceled = task.cancel(true);
         return canceled;
@@ -90,6 +175,97 @@ public class BackgroundTaskExecutor {
         }
     }
 
+    /**
+     * Executes the tasks and returns their results in completion order, so a slow
+     * task submitted early does not hold back results that are already done.
+     * Failed tasks are reported to onInterruption and yielded as empty. If the
+     * caller is interrupted while waiting, the remaining tasks are cancelled and
+     * a CancellationException is thrown.
+     */
+    public <T> Iterator<Optional<T>> completeTasksAsDone(List<Callable<T>> tasks, OnInterruption<T> onInterruption) {
+        var completions = new LinkedBlockingQueue<Future<T>>();
+        var futures = submitAll(tasks, completions);
+        return new Iterator<>() {
+            private int remaining = futures.size();
+
+            @Override
+            public boolean hasNext() {
+                return remaining > 0;
+            }
+
+            @Override
+            public Optional<T> next() {
+                if (remaining == 0) {
+                    throw new NoSuchElementException();
+                }
+                Future<T> done;
+                try {
+                    done = completions.take();
+                } catch (InterruptedException e) {
+                    remaining = 0;
+                    futures.forEach(f -> f.cancel(true));
+                    Thread.currentThread().interrupt();
+                    throw new CancellationException("Interrupted while waiting for task results");
+                }
+                remaining--;
+                try {
+                    return Optional.ofNullable(done.get());
+                } catch (InterruptedException | ExecutionException | CancellationException e) {
+                    onInterruption.accept(done, e);
+                    return Optional.empty();
+                }
+            }
+        };
+    }
+
+    /**
+     * Executes the tasks and returns as soon as the first successes results are
+     * available, in completion order. Fewer results are returned when not enough
+     * tasks succeed. With cancelRemaining the tasks still running are cancelled,
+     * otherwise they are left to finish in background. Like invokeAll, if the
+     * caller is interrupted while waiting every task is cancelled and the
+     * InterruptedException is thrown, so a partial list is never returned.
+     */
+    public <T> List<T> completeFirst(List<Callable<T>> tasks, int successes, boolean cancelRemaining,
+                                     OnInterruption<T> onInterruption) throws InterruptedException {
+        if (successes < 0 || successes > tasks.size()) {
+            throw new IllegalArgumentException("successes must be between 0 and " + tasks.size() + ": " + successes);
+        }
+        var completions = new LinkedBlockingQueue<Future<T>>();
+        var futures = submitAll(tasks, completions);
+        var results = new ArrayList<T>(successes);
+        var finished = false;
+        try {
+            for (int i = 0; i < futures.size() && results.size() < successes; i++) {
+                var done = completions.take();
+                try {
+                    results.add(done.get());
+                } catch (ExecutionException | CancellationException e) {
+                    onInterruption.accept(done, e);
+                }
+            }
+            finished = true;
+        } finally {
+            if (cancelRemaining || !finished) {
+                futures.forEach(f -> f.cancel(true));
+            }
+        }
+        return results;
+    }
+
+    private <T> List<Future<T>> submitAll(List<Callable<T>> tasks, BlockingQueue<Future<T>> completions) {
+        var futures = new ArrayList<Future<T>>(tasks.size());
+        try {
+            for (var task : tasks) {
+                futures.add(submitTask(null, task, completions));
+            }
+        } catch (RuntimeException e) {
+            futures.forEach(f -> f.cancel(true));
+            throw e;
+        }
+        return futures;
+    }
+
     public void shutdownTasks(long timeout, TimeUnit timeUnit, OnShutdownError onShutdownError) {
         executor.shutdown();
         try {
@@ -100,7 +276,8 @@ public class BackgroundTaskExecutor {
     }
 
     public List<Runnable> shutdownNowTasks(long timeout, TimeUnit timeUnit, OnShutdownError onShutdownError) {
-        var remainingTasks = executor.shutdownNow();
+        // queued tasks never start, so metrics take them out of the queue depth here
+        var remainingTasks = metrics == null ? executor.shutdownNow() : metrics.drained(executor.shutdownNow());
         try {
             executor.awaitTermination(timeout, timeUnit);
         } catch (InterruptedException e) {
@@ -0,0 +1,181 @@
+package app.patterns.task_execution;
+
+import app.patterns.ThreadSafe;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Pattern: Batched Submission
+ * <p>
+ * Motivations: Submitting a trivial task costs a queue insert, usually a worker
+ * wakeup and a future, which is far more than the task itself.
+ * <p>
+ * Intent: Pack many small tasks into chunks and run each chunk as a single
+ * executor task, so each item costs about a method call. The chunk size adapts
+ * to the measured cost per item: enough items to make a chunk take about the
+ * target time, but no fewer chunks than the parallelism when the batch allows
+ * it. The caller gets one aggregate future, or the results in item order.
+ * <p>
+ * Applicability: High rates of tiny tasks where the executor overhead dominates,
+ * such as fan-out of cheap callbacks, counters, or log records.
+ */
+@ThreadSafe
+public class BatchSubmitter {
+
+    private static final long DEFAULT_TARGET_CHUNK_NANOS = TimeUnit.MICROSECONDS.toNanos(100);
+    // until the first chunk is measured, split each batch in this many chunks per worker
+    private static final int INITIAL_CHUNKS_PER_WORKER = 4;
+
+    private final Executor executor;
+    private final int parallelism;
+    private final long targetChunkNanos;
+    // EWMA of the cost of one item, 0 until measured; racy updates only lose samples
+    private volatile long itemNanos;
+
+    public BatchSubmitter(Executor executor) {
+        this(executor, Runtime.getRuntime().availableProcessors(), DEFAULT_TARGET_CHUNK_NANOS, TimeUnit.NANOSECONDS);
+    }
+
+    public BatchSubmitter(Executor executor, int parallelism, long targetChunkTime, TimeUnit timeUnit) {
+        if (parallelism <= 0 || targetChunkTime <= 0) {
+            throw new IllegalArgumentException("parallelism and targetChunkTime must be positive");
+        }
+        this.executor = executor;
+        this.parallelism = parallelism;
+        this.targetChunkNanos = timeUnit.toNanos(targetChunkTime);
+    }
+
+    // Completes when every task has run, or exceptionally with the first failure
+    public CompletableFuture<Void> executeAll(List<? extends Runnable> tasks) {
+        var batch = new Batch<Void>(tasks.size(), false);
+        dispatch(batch, (index) -> {
+            tasks.get(index).run();
+            return null;
+        });
+        return batch.future;
+    }
+
+    /**
+     * Completes with the results in task order, or exceptionally with the first
+     * failure. After a failure, or after the returned future is cancelled, the
+     * items not yet started are skipped.
+     */
+    public <T> CompletableFuture<List<T>> submitAll(List<? extends Callable<? extends T>> tasks) {
+        var batch = new Batch<List<T>>(tasks.size(), true);
+        dispatch(batch, (index) -> tasks.get(index).call());
+        return batch.future;
+    }
+
+    public int getChunkSize(int batchSize) {
+        return chunkSize(batchSize);
+    }
+
+    private interface Item {
+        Object call(int index) throws Exception;
+    }
+
+    private static class Batch<R> {
+        private final CompletableFuture<R> future = new CompletableFuture<>();
+        private final int size;
+        private final Object[] results;
+        private final AtomicReference<Throwable> failure = new AtomicReference<>();
+        private final AtomicInteger pendingChunks = new AtomicInteger();
+
+        Batch(int size, boolean keepResults) {
+            this.size = size;
+            this.results = keepResults ? new Object[size] : null;
+        }
+
+        boolean stopped() {
+            return failure.get() != null || future.isDone();
+        }
+
+        void fail(Throwable e) {
+            failure.compareAndSet(null, e);
+        }
+
+        @SuppressWarnings("unchecked")
+        void chunkDone() {
+            if (pendingChunks.decrementAndGet() != 0) {
+                return;
+            }
+            var e = failure.get();
+            if (e != null) {
+                future.completeExceptionally(e);
+            } else {
+                future.complete(results == null ? null : (R) Collections.unmodifiableList(Arrays.asList(results)));
+            }
+        }
+    }
+
+    private <R> void dispatch(Batch<R> batch, Item item) {
+        var count = batch.size;
+        if (count == 0) {
+            batch.pendingChunks.set(1);
+            batch.chunkDone();
+            return;
+        }
+        var chunk = chunkSize(count);
+        var chunks = (count + chunk - 1) / chunk;
+        batch.pendingChunks.set(chunks);
+        for (int c = 0; c < chunks; c++) {
+            var from = c * chunk;
+            var to = Math.min(count, from + chunk);
+            try {
+                executor.execute(() -> runChunk(batch, item, from, to));
+            } catch (RejectedExecutionException e) {
+                batch.fail(e);
+                // this chunk and the ones never submitted are done
+                for (int skipped = c; skipped < chunks; skipped++) {
+                    batch.chunkDone();
+                }
+                return;
+            }
+        }
+    }
+
+    private <R> void runChunk(Batch<R> batch, Item item, int from, int to) {
+        var before = System.nanoTime();
+        var ran = 0;
+        try {
+            for (int i = from; i < to && !batch.stopped(); i++) {
+                var result = item.call(i);
+                if (batch.results != null) {
+                    batch.results[i] = result;
+                }
+                ran++;
+            }
+        } catch (Throwable e) {
+            batch.fail(e);
+        } finally {
+            if (ran > 0) {
+                recordCost((System.nanoTime() - before) / ran);
+            }
+            batch.chunkDone();
+        }
+    }
+
+    private void recordCost(long sample) {
+        var current = itemNanos;
+        itemNanos = current == 0 ? Math.max(1, sample) : Math.max(1, current + (sample - current) / 8);
+    }
+
+    private int chunkSize(int count) {
+        var balanced = Math.max(1, (count + parallelism - 1) / parallelism);
+        var cost = itemNanos;
+        if (cost == 0) {
+            return Math.max(1, balanced / INITIAL_CHUNKS_PER_WORKER);
+        }
+        var byCost = (int) Math.min(Integer.MAX_VALUE, Math.max(1, targetChunkNanos / cost));
+        return Math.min(balanced, byCost);
+    }
+}
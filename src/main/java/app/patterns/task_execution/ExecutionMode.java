@@ -0,0 +1,16 @@
+package app.patterns.task_execution;
+
+/**
+ * How an executor runs its tasks.
+ * <p>
+ * PLATFORM: a fixed pool of platform threads, concurrency is capped by the
+ * number of threads.
+ * <p>
+ * VIRTUAL: a new virtual thread per task, concurrency is capped by a semaphore
+ * instead of pool size. Fits tasks that spend most of their time blocked on I/O.
+ * On runtimes without virtual threads (before Java 21) a platform thread per task
+ * is used instead.
+ */
+public enum ExecutionMode {
+    PLATFORM, VIRTUAL
+}
@@ -0,0 +1,292 @@
+package app.patterns.task_execution;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+
+/**
+ * Pattern: Hashed Timing Wheel
+ * <p>
+ * Motivations: Timeouts backed by a ScheduledThreadPoolExecutor cost O(log n) per
+ * schedule and cancel on its heap, and a parked thread per timeout costs a whole
+ * thread. With millions of timeouts, most of them cancelled before they fire,
+ * both add up.
+ * <p>
+ * Intent: Hash every timeout into a bucket of a circular wheel by its deadline.
+ * One timer thread advances the wheel a tick at a time and expires the bucket
+ * under it, in one batch. Schedule and cancel are O(1): new timeouts and
+ * cancellations go through lock-free queues and only the timer thread touches
+ * the buckets.
+ * <p>
+ * Applicability: Large numbers of timeouts where firing within one tick of the
+ * deadline is precise enough.
+ */
+public class HashedWheelTimer {
+
+    private static final int MAX_TRANSFERS_PER_TICK = 100_000;
+    private static final AtomicInteger INSTANCES = new AtomicInteger();
+
+    public interface Timeout {
+
+        // True when this call cancelled the timeout before it expired
+        boolean cancel();
+
+        boolean isCancelled();
+
+        boolean isExpired();
+    }
+
+    private final long tickNanos;
+    private final Bucket[] wheel;
+    private final int mask;
+    private final Executor expiryExecutor;
+    private final Queue<Entry> pending = new ConcurrentLinkedQueue<>();
+    private final Queue<Entry> cancelled = new ConcurrentLinkedQueue<>();
+    private final long startTime;
+    private final Thread worker;
+    private volatile boolean running = true;
+    private long tick;
+
+    public HashedWheelTimer(long tickDuration, TimeUnit unit, int wheelSize) {
+        this(tickDuration, unit, wheelSize, null);
+    }
+
+    /**
+     * Expired tasks of each tick are handed to expiryExecutor as one batch; without
+     * one they run on the timer thread and must be short.
+     */
+    public HashedWheelTimer(long tickDuration, TimeUnit unit, int wheelSize, Executor expiryExecutor) {
+        if (tickDuration <= 0 || wheelSize <= 0) {
+            throw new IllegalArgumentException("tickDuration and wheelSize must be positive");
+        }
+        this.tickNanos = unit.toNanos(tickDuration);
+        // a power of two, so the bucket index is a mask instead of a modulo
+        var size = 1;
+        while (size < wheelSize) {
+            size <<= 1;
+        }
+        this.wheel = new Bucket[size];
+        for (int i = 0; i < wheel.length; i++) {
+            wheel[i] = new Bucket();
+        }
+        this.mask = wheel.length - 1;
+        this.expiryExecutor = expiryExecutor;
+        this.startTime = System.nanoTime();
+        this.worker = new Thread(this::run, "HashedWheelTimer-" + INSTANCES.incrementAndGet());
+        this.worker.setDaemon(true);
+        this.worker.start();
+    }
+
+    public Timeout schedule(Runnable task, long delay, TimeUnit unit) {
+        if (!running) {
+            throw new IllegalStateException("Timer has been stopped");
+        }
+        var deadline = System.nanoTime() - startTime + Math.max(0, unit.toNanos(delay));
+        var entry = new Entry(task, deadline);
+        pending.add(entry);
+        return entry;
+    }
+
+    // Completes the future with a TimeoutException unless it completes first
+    public <T> CompletableFuture<T> orTimeout(CompletableFuture<T> future, long timeout, TimeUnit unit) {
+        var timeoutHandle = schedule(() -> future.completeExceptionally(new TimeoutException()), timeout, unit);
+        future.whenComplete((value, error) -> timeoutHandle.cancel());
+        return future;
+    }
+
+    // Completes the future with the value unless it completes first
+    public <T> CompletableFuture<T> completeOnTimeout(CompletableFuture<T> future, T value, long timeout, TimeUnit unit) {
+        var timeoutHandle = schedule(() -> future.complete(value), timeout, unit);
+        future.whenComplete((result, error) -> timeoutHandle.cancel());
+        return future;
+    }
+
+    // Stops the timer thread; timeouts not expired yet never fire
+    public void stop() {
+        running = false;
+        worker.interrupt();
+    }
+
+    private void run() {
+        var expired = new ArrayList<Runnable>();
+        while (running) {
+            var deadline = waitForNextTick();
+            if (deadline < 0) {
+                break;
+            }
+            processCancelled();
+            transferPending();
+            wheel[(int) (tick & mask)].expire(deadline, expired);
+            tick++;
+            if (!expired.isEmpty()) {
+                runExpired(expired);
+                expired = new ArrayList<>();
+            }
+        }
+    }
+
+    private long waitForNextTick() {
+        var deadline = tickNanos * (tick + 1);
+        while (true) {
+            var sleepNanos = deadline - (System.nanoTime() - startTime);
+            if (sleepNanos <= 0) {
+                return deadline;
+            }
+            try {
+                TimeUnit.NANOSECONDS.sleep(sleepNanos);
+            } catch (InterruptedException e) {
+                if (!running) {
+                    return -1;
+                }
+            }
+        }
+    }
+
+    private void processCancelled() {
+        Entry entry;
+        while ((entry = cancelled.poll()) != null) {
+            if (entry.bucket != null) {
+                entry.bucket.remove(entry);
+            }
+        }
+    }
+
+    private void transferPending() {
+        for (int i = 0; i < MAX_TRANSFERS_PER_TICK; i++) {
+            var entry = pending.poll();
+            if (entry == null) {
+                return;
+            }
+            if (entry.isCancelled()) {
+                continue;
+            }
+            var ticks = entry.deadline / tickNanos;
+            entry.remainingRounds = (ticks - tick) / wheel.length;
+            // already late: expire on the current tick instead of a full lap later
+            var slot = Math.max(ticks, tick);
+            wheel[(int) (slot & mask)].add(entry);
+        }
+    }
+
+    private void runExpired(List<Runnable> expired) {
+        if (expiryExecutor == null) {
+            runAll(expired);
+        } else {
+            expiryExecutor.execute(() -> runAll(expired));
+        }
+    }
+
+    private static void runAll(List<Runnable> tasks) {
+        for (var task : tasks) {
+            try {
+                task.run();
+            } catch (RuntimeException | Error e) {
+                var current = Thread.currentThread();
+                current.getUncaughtExceptionHandler().uncaughtException(current, e);
+            }
+        }
+    }
+
+    private static final AtomicIntegerFieldUpdater<Entry> STATE =
+            AtomicIntegerFieldUpdater.newUpdater(Entry.class, "state");
+
+    private class Entry implements Timeout {
+        private static final int INIT = 0;
+        private static final int CANCELLED = 1;
+        private static final int EXPIRED = 2;
+
+        private final Runnable task;
+        private volatile int state = INIT;
+        private final long deadline;
+        private long remainingRounds;
+        private Bucket bucket;
+        private Entry prev;
+        private Entry next;
+
+        Entry(Runnable task, long deadline) {
+            this.task = task;
+            this.deadline = deadline;
+        }
+
+        @Override
+        public boolean cancel() {
+            if (!STATE.compareAndSet(this, INIT, CANCELLED)) {
+                return false;
+            }
+            // unlinked by the timer thread, which owns the buckets
+            cancelled.add(this);
+            return true;
+        }
+
+        @Override
+        public boolean isCancelled() {
+            return state == CANCELLED;
+        }
+
+        @Override
+        public boolean isExpired() {
+            return state == EXPIRED;
+        }
+    }
+
+    // Doubly linked list of entries, only touched by the timer thread
+    private class Bucket {
+        private Entry head;
+        private Entry tail;
+
+        void add(Entry entry) {
+            entry.bucket = this;
+            if (head == null) {
+                head = tail = entry;
+            } else {
+                tail.next = entry;
+                entry.prev = tail;
+                tail = entry;
+            }
+        }
+
+        void expire(long deadline, List<Runnable> expired) {
+            var entry = head;
+            while (entry != null) {
+                var next = entry.next;
+                if (entry.remainingRounds <= 0 && entry.deadline <= deadline) {
+                    remove(entry);
+                    if (STATE.compareAndSet(entry, Entry.INIT, Entry.EXPIRED)) {
+                        expired.add(entry.task);
+                    }
+                } else if (entry.isCancelled()) {
+                    remove(entry);
+                } else if (entry.remainingRounds > 0) {
+                    entry.remainingRounds--;
+                }
+                entry = next;
+            }
+        }
+
+        void remove(Entry entry) {
+            if (entry.bucket != this) {
+                return;
+            }
+            if (entry.prev != null) {
+                entry.prev.next = entry.next;
+            } else {
+                head = entry.next;
+            }
+            if (entry.next != null) {
+                entry.next.prev = entry.prev;
+            } else {
+                tail = entry.prev;
+            }
+            entry.prev = null;
+            entry.next = null;
+            entry.bucket = null;
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package app.patterns.task_execution;
+
+import app.patterns.GuardedBy;
+import app.patterns.ThreadSafe;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.FutureTask;
+
+/**
+ * FutureTask that runs callbacks once it is done, however it got there: run to
+ * completion, failed, cancelled, or completed by its executor without ever
+ * running, as a shed deadline does.
+ * <p>
+ * The executors of this package return these, so whatever sits around a task
+ * (a concurrency limit, a hedge, a progress slot) can tie its bookkeeping to the
+ * future instead of to the task's call, which a task that never runs skips.
+ * Subclasses overriding done() must call super.done().
+ */
+@ThreadSafe
+public class ObservableFutureTask<T> extends FutureTask<T> {
+
+    @GuardedBy("this")
+    private List<Runnable> callbacks = new ArrayList<>();
+
+    public ObservableFutureTask(Callable<T> callable) {
+        super(callable);
+    }
+
+    /**
+     * Runs the callback on the thread completing the future, or right away on the
+     * calling thread when the future is already done.
+     */
+    public void whenDone(Runnable callback) {
+        synchronized (this) {
+            if (callbacks != null) {
+                callbacks.add(callback);
+                return;
+            }
+        }
+        callback.run();
+    }
+
+    @Override
+    protected void done() {
+        List<Runnable> toRun;
+        synchronized (this) {
+            toRun = callbacks;
+            callbacks = null;
+        }
+        toRun.forEach(Runnable::run);
+    }
+}
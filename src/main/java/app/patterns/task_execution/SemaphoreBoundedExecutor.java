@@ -0,0 +1,195 @@
+package app.patterns.task_execution;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Executor that starts a new thread per task, usually a virtual one, and bounds
+ * how many run at once with a Semaphore instead of a pool size.
+ * <p>
+ * Tasks wait in the given queue while no permit is available, so a
+ * PriorityBlockingQueue keeps the same ordering a ThreadPoolExecutor would give.
+ * There is no dispatcher thread: submitters and finishing tasks hand queued work
+ * to free permits themselves.
+ */
+public class SemaphoreBoundedExecutor extends AbstractExecutorService {
+
+    public static final boolean VIRTUAL_THREADS_AVAILABLE = virtualThreadFactory("probe-") != null;
+
+    private final Semaphore permits;
+    private final BlockingQueue<Runnable> queue;
+    private final ThreadFactory threadFactory;
+    private final Set<Thread> running = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger active = new AtomicInteger();
+    private final ReentrantLock terminationLock = new ReentrantLock();
+    private final Condition terminated = terminationLock.newCondition();
+    private volatile boolean shutdown;
+
+    public SemaphoreBoundedExecutor(int maxConcurrentTasks, BlockingQueue<Runnable> queue, ThreadFactory threadFactory) {
+        this.permits = new Semaphore(maxConcurrentTasks);
+        this.queue = queue;
+        this.threadFactory = threadFactory;
+    }
+
+    /**
+     * Virtual thread per task when the runtime supports it, otherwise a platform
+     * daemon thread per task.
+     */
+    public static ThreadFactory perTaskThreadFactory(String namePrefix) {
+        var virtual = virtualThreadFactory(namePrefix);
+        if (virtual != null) {
+            return virtual;
+        }
+        var counter = new AtomicInteger();
+        return r -> {
+            var thread = new Thread(r, namePrefix + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    // Thread.ofVirtual() is looked up reflectively so the project still builds on Java 17
+    private static ThreadFactory virtualThreadFactory(String namePrefix) {
+        try {
+            var builderType = Class.forName("java.lang.Thread$Builder");
+            var builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            builder = builderType.getMethod("name", String.class, long.class).invoke(builder, namePrefix, 0L);
+            return (ThreadFactory) builderType.getMethod("factory").invoke(builder);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            return null;
+        }
+    }
+
+    @Override
+    public void execute(Runnable command) {
+        Objects.requireNonNull(command);
+        if (shutdown) {
+            throw new RejectedExecutionException("Executor has been shut down");
+        }
+        if (!queue.offer(command)) {
+            throw new RejectedExecutionException("Task queue is full");
+        }
+        if (shutdown && queue.remove(command)) {
+            throw new RejectedExecutionException("Executor has been shut down");
+        }
+        dispatch();
+    }
+
+    /*
+     * Moves queued tasks onto free permits. A caller that finds the queue empty
+     * after taking a permit gives it back and re-checks, so a task offered while
+     * the permit was held is never stranded.
+     */
+    private void dispatch() {
+        while (!queue.isEmpty() && permits.tryAcquire()) {
+            var next = queue.poll();
+            if (next == null) {
+                permits.release();
+                continue;
+            }
+            start(next);
+        }
+    }
+
+    private void start(Runnable task) {
+        active.incrementAndGet();
+        try {
+            threadFactory.newThread(() -> runTask(task)).start();
+        } catch (RuntimeException | Error e) {
+            permits.release();
+            if (active.decrementAndGet() == 0) {
+                signalIfTerminated();
+            }
+            throw e;
+        }
+    }
+
+    private void runTask(Runnable task) {
+        var current = Thread.currentThread();
+        running.add(current);
+        try {
+            task.run();
+        } finally {
+            running.remove(current);
+            permits.release();
+            dispatch();
+            if (active.decrementAndGet() == 0) {
+                signalIfTerminated();
+            }
+        }
+    }
+
+    private void signalIfTerminated() {
+        if (isTerminated()) {
+            terminationLock.lock();
+            try {
+                terminated.signalAll();
+            } finally {
+                terminationLock.unlock();
+            }
+        }
+    }
+
+    public int getActiveCount() {
+        return active.get();
+    }
+
+    public int getQueueSize() {
+        return queue.size();
+    }
+
+    @Override
+    public void shutdown() {
+        shutdown = true;
+        signalIfTerminated();
+    }
+
+    @Override
+    public List<Runnable> shutdownNow() {
+        shutdown = true;
+        var remaining = new ArrayList<Runnable>();
+        queue.drainTo(remaining);
+        running.forEach(Thread::interrupt);
+        signalIfTerminated();
+        return remaining;
+    }
+
+    @Override
+    public boolean isShutdown() {
+        return shutdown;
+    }
+
+    @Override
+    public boolean isTerminated() {
+        return shutdown && active.get() == 0 && queue.isEmpty();
+    }
+
+    @Override
+    public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+        long nanos = unit.toNanos(timeout);
+        terminationLock.lock();
+        try {
+            while (!isTerminated()) {
+                if (nanos <= 0) {
+                    return false;
+                }
+                nanos = terminated.awaitNanos(nanos);
+            }
+            return true;
+        } finally {
+            terminationLock.unlock();
+        }
+    }
+}
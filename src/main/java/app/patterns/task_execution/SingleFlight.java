@@ -0,0 +1,122 @@
+package app.patterns.task_execution;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Pattern: Single Flight
+ * <p>
+ * Motivations: Identical tasks submitted within milliseconds of each other, like
+ * every caller loading the same entry on a cache miss, each run separately and
+ * multiply the load on the downstream.
+ * <p>
+ * Intent: Coalesce tasks by key. While a task for a key is in flight, callers
+ * with the same key get its future instead of running a new task. Once it
+ * completes the key is evicted, or its result is kept for a short TTL. Failed
+ * and cancelled tasks are always evicted so the next caller retries.
+ * <p>
+ * Applicability: Idempotent reads whose result any concurrent caller can share.
+ * All tasks submitted under one key must produce the same result type.
+ */
+public class SingleFlight<K> {
+
+    private static final int SWEEP_EVERY = 1024;
+
+    private final ConcurrentHashMap<K, Flight<?>> flights = new ConcurrentHashMap<>();
+    private final AtomicInteger calls = new AtomicInteger();
+    private volatile long ttlNanos;
+
+    public SingleFlight() {
+        this(0, TimeUnit.NANOSECONDS);
+    }
+
+    public SingleFlight(long ttl, TimeUnit unit) {
+        this.ttlNanos = unit.toNanos(ttl);
+    }
+
+    // How long a successful result stays shared after it completes; zero evicts on completion
+    public void setTtl(long ttl, TimeUnit unit) {
+        this.ttlNanos = unit.toNanos(ttl);
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T> Future<T> execute(K key, Callable<T> task, Executor executor) {
+        if ((calls.incrementAndGet() & (SWEEP_EVERY - 1)) == 0) {
+            sweepExpired();
+        }
+        while (true) {
+            var existing = flights.get(key);
+            if (existing != null) {
+                if (!existing.isExpired()) {
+                    return (Future<T>) existing;
+                }
+                flights.remove(key, existing);
+                continue;
+            }
+            var flight = new Flight<>(key, task);
+            if (flights.putIfAbsent(key, flight) != null) {
+                continue;
+            }
+            try {
+                executor.execute(flight);
+            } catch (RejectedExecutionException e) {
+                // callers that already joined this flight must not wait forever
+                flight.reject(e);
+                throw e;
+            }
+            return flight;
+        }
+    }
+
+    public int size() {
+        return flights.size();
+    }
+
+    // Keys kept for a TTL are otherwise only evicted when asked for again
+    private void sweepExpired() {
+        flights.values().removeIf(Flight::isExpired);
+    }
+
+    private class Flight<T> extends ObservableFutureTask<T> {
+        private final K key;
+        private volatile boolean failed;
+        private volatile boolean landed;
+        private volatile long expiresAt;
+
+        Flight(K key, Callable<T> task) {
+            super(task);
+            this.key = key;
+        }
+
+        @Override
+        protected void setException(Throwable t) {
+            failed = true;
+            super.setException(t);
+        }
+
+        void reject(RejectedExecutionException e) {
+            setException(e);
+        }
+
+        @Override
+        protected void done() {
+            super.done();
+            var ttl = ttlNanos;
+            if (ttl == 0 || failed || isCancelled()) {
+                flights.remove(key, this);
+            } else {
+                expiresAt = System.nanoTime() + ttl;
+                landed = true;
+            }
+        }
+
+        boolean isExpired() {
+            return landed && System.nanoTime() - expiresAt >= 0;
+        }
+    }
+}
@@ -0,0 +1,342 @@
+package app.patterns.task_execution;
+
+import app.patterns.GuardedBy;
+import app.patterns.ThreadSafe;
+
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Pattern: Structured Task Scope
+ * <p>
+ * Motivations: Cancelling fan-out futures one by one leaves behind whatever
+ * those tasks spawned themselves, and nothing stops a subtask from running on
+ * after the request that started it has returned.
+ * <p>
+ * Intent: Fork subtasks inside a scope owned by one thread. When the scope
+ * fails, times out, or gets its first success (depending on its policy), every
+ * subtask is cancelled, together with the scopes opened inside those subtasks.
+ * Closing the scope waits for the subtask threads to exit, so the scope never
+ * outlives its owner.
+ * <p>
+ * Applicability: Handling one request with several concurrent calls whose
+ * results only matter together, or where the first good answer is enough.
+ * <p>
+ * Usage: open the scope in try-with-resources, fork, join, then read the outcome
+ * with throwIfFailed or result.
+ */
+@ThreadSafe
+public final class TaskScope<T> implements AutoCloseable {
+
+    public enum Policy {
+        // wait for every subtask; failures are only reported
+        WAIT_ALL,
+        // cancel the rest as soon as one subtask fails
+        SHUTDOWN_ON_FAILURE,
+        // cancel the rest as soon as one subtask succeeds
+        SHUTDOWN_ON_SUCCESS
+    }
+
+    // scope whose owner or subtask is running on the current thread
+    private static final ThreadLocal<TaskScope<?>> CURRENT = new ThreadLocal<>();
+
+    private final Policy policy;
+    private final Executor executor;
+    private final Thread owner = Thread.currentThread();
+    private final TaskScope<?> parent = CURRENT.get();
+    private final Set<Subtask> subtasks = ConcurrentHashMap.newKeySet();
+    private final Set<TaskScope<?>> children = ConcurrentHashMap.newKeySet();
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition settled = lock.newCondition();
+    @GuardedBy("lock")
+    private int pending;
+    @GuardedBy("lock")
+    private int running;
+    @GuardedBy("lock")
+    private boolean shutdown;
+    @GuardedBy("lock")
+    private boolean closed;
+    @GuardedBy("lock")
+    private Throwable firstFailure;
+    @GuardedBy("lock")
+    private boolean hasResult;
+    @GuardedBy("lock")
+    private T firstResult;
+
+    /**
+     * Opens a scope owned by the current thread. A scope opened by a subtask of
+     * another scope, or by the owner of a still open scope, is shut down along
+     * with it. The class is final because the constructor registers the scope
+     * with its parent and the thread, which a subclass would see half built.
+     */
+    public TaskScope(Policy policy, Executor executor) {
+        this.policy = policy;
+        this.executor = executor;
+        if (parent != null) {
+            parent.children.add(this);
+            if (parent.isShutdown()) {
+                shutdown();
+            }
+        }
+        CURRENT.set(this);
+    }
+
+    // Subtask that applies the scope policy when done and tracks the thread running it
+    private class Subtask extends FutureTask<T> {
+
+        Subtask(Callable<? extends T> task) {
+            super(task::call);
+        }
+
+        void setRejected(RejectedExecutionException e) {
+            setException(e);
+        }
+
+        @Override
+        public void run() {
+            lock.lock();
+            try {
+                if (isDone()) {
+                    return;
+                }
+                running++;
+            } finally {
+                lock.unlock();
+            }
+            var previous = CURRENT.get();
+            CURRENT.set(TaskScope.this);
+            try {
+                super.run();
+            } finally {
+                CURRENT.set(previous);
+                lock.lock();
+                try {
+                    running--;
+                    settled.signalAll();
+                } finally {
+                    lock.unlock();
+                }
+            }
+        }
+
+        @Override
+        protected void done() {
+            subtasks.remove(this);
+            var shutdownNow = false;
+            lock.lock();
+            try {
+                pending--;
+                if (!isCancelled()) {
+                    try {
+                        T result = get();
+                        if (!hasResult) {
+                            hasResult = true;
+                            firstResult = result;
+                            shutdownNow = policy == Policy.SHUTDOWN_ON_SUCCESS;
+                        }
+                    } catch (ExecutionException e) {
+                        if (firstFailure == null) {
+                            firstFailure = e.getCause();
+                            shutdownNow = policy == Policy.SHUTDOWN_ON_FAILURE;
+                        }
+                    } catch (InterruptedException e) {
+                        // done tasks never block in get
+                    }
+                }
+                settled.signalAll();
+            } finally {
+                lock.unlock();
+            }
+            if (shutdownNow) {
+                shutdown();
+            }
+        }
+    }
+
+    /**
+     * Forks a subtask. Allowed from the owner and from the scope's own subtasks.
+     * Once the scope is shut down, the returned future is already cancelled.
+     */
+    public Future<T> fork(Callable<? extends T> task) {
+        if (!isInside()) {
+            throw new IllegalStateException("Current thread is not the owner or a subtask of this scope");
+        }
+        var subtask = new Subtask(task);
+        lock.lock();
+        try {
+            if (closed) {
+                throw new IllegalStateException("Scope is closed");
+            }
+            // counted even when cancelled right away, since cancelling runs done, which counts it down
+            pending++;
+            if (shutdown) {
+                subtask.cancel(false);
+                return subtask;
+            }
+            subtasks.add(subtask);
+        } finally {
+            lock.unlock();
+        }
+        try {
+            executor.execute(subtask);
+        } catch (RejectedExecutionException e) {
+            subtask.setRejected(e);
+        }
+        return subtask;
+    }
+
+    // Waits until every subtask is done or the scope is shut down
+    public TaskScope<T> join() throws InterruptedException {
+        checkOwner();
+        lock.lock();
+        try {
+            while (pending > 0 && !shutdown) {
+                settled.await();
+            }
+        } finally {
+            lock.unlock();
+        }
+        return this;
+    }
+
+    // Like join, but shuts the scope down and throws once the timeout elapses
+    public TaskScope<T> join(long timeout, TimeUnit timeUnit) throws InterruptedException, TimeoutException {
+        checkOwner();
+        var remaining = timeUnit.toNanos(timeout);
+        lock.lock();
+        try {
+            while (pending > 0 && !shutdown) {
+                if (remaining <= 0) {
+                    lock.unlock();
+                    try {
+                        shutdown();
+                    } finally {
+                        lock.lock();
+                    }
+                    throw new TimeoutException("Scope did not complete in " + timeout + " " + timeUnit);
+                }
+                remaining = settled.awaitNanos(remaining);
+            }
+        } finally {
+            lock.unlock();
+        }
+        return this;
+    }
+
+    // Throws the first subtask failure, if any
+    public void throwIfFailed() throws ExecutionException {
+        lock.lock();
+        try {
+            if (firstFailure != null) {
+                throw new ExecutionException(firstFailure);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // First successful result; throws the first failure when no subtask succeeded
+    public T result() throws ExecutionException {
+        lock.lock();
+        try {
+            if (hasResult) {
+                return firstResult;
+            }
+            throw new ExecutionException("No subtask succeeded", firstFailure);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Cancels every unfinished subtask, interrupting those running, and shuts down
+     * the scopes opened inside them. Forks after this return cancelled futures.
+     */
+    public void shutdown() {
+        lock.lock();
+        try {
+            if (shutdown) {
+                return;
+            }
+            shutdown = true;
+            settled.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        subtasks.forEach(subtask -> subtask.cancel(true));
+        children.forEach(TaskScope::shutdown);
+    }
+
+    public boolean isShutdown() {
+        lock.lock();
+        try {
+            return shutdown;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Shuts the scope down and waits for its subtask threads to exit. Called by
+     * the owner, normally through try-with-resources.
+     */
+    @Override
+    public void close() {
+        checkOwner();
+        shutdown();
+        var interrupted = false;
+        lock.lock();
+        try {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            while (running > 0) {
+                try {
+                    settled.await();
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+        if (parent != null) {
+            parent.children.remove(this);
+        }
+        if (CURRENT.get() == this) {
+            CURRENT.set(parent);
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private boolean isInside() {
+        if (Thread.currentThread() == owner) {
+            return true;
+        }
+        for (var scope = CURRENT.get(); scope != null; scope = scope.parent) {
+            if (scope == this) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void checkOwner() {
+        if (Thread.currentThread() != owner) {
+            throw new IllegalStateException("Only the owner thread can join or close this scope");
+        }
+    }
+}
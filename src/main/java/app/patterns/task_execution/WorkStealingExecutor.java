@@ -0,0 +1,346 @@
+package app.patterns.task_execution;
+
+import app.patterns.ThreadSafe;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Pattern: Work Stealing Executor
+ * <p>
+ * Motivations: A pool with one shared queue makes every submission and every
+ * poll contend on the same lock, which dominates when tasks are short and spawn
+ * more short tasks.
+ * <p>
+ * Intent: Give each worker its own Chase-Lev deque. A task submitted from a
+ * worker is pushed on that worker's deque and popped back LIFO, so the owner
+ * works on hot data without contention. Submissions from other threads go
+ * through a shared injection queue. An idle worker steals the oldest task from
+ * a random victim and parks once nothing is left anywhere.
+ * <p>
+ * Applicability: Recursive or graph-shaped workloads where tasks fork children,
+ * e.g. tree traversals, parallel search, and divide and conquer without joins.
+ */
+@ThreadSafe
+public class WorkStealingExecutor extends AbstractExecutorService {
+
+    private static final int INITIAL_DEQUE_CAPACITY = 1 << 8;
+
+    /**
+     * Chase-Lev deque: only the owner pushes and pops at the bottom, any thread
+     * steals at the top. The owner takes the last element in a race with thieves
+     * by compare-and-set on top, as do the thieves among themselves.
+     */
+    static final class WorkDeque {
+        private static final VarHandle TOP;
+        private static final VarHandle SLOT = MethodHandles.arrayElementVarHandle(Runnable[].class);
+
+        static {
+            try {
+                TOP = MethodHandles.lookup().findVarHandle(WorkDeque.class, "top", long.class);
+            } catch (ReflectiveOperationException e) {
+                throw new ExceptionInInitializerError(e);
+            }
+        }
+
+        private volatile long top;
+        private volatile long bottom;
+        private volatile Runnable[] array = new Runnable[INITIAL_DEQUE_CAPACITY];
+
+        // Owner only
+        void push(Runnable task) {
+            var b = bottom;
+            var t = top;
+            var a = array;
+            if (b - t >= a.length - 1) {
+                a = grow(a, b, t);
+            }
+            SLOT.setRelease(a, (int) b & (a.length - 1), task);
+            bottom = b + 1;
+        }
+
+        // Owner only, LIFO
+        Runnable pop() {
+            var b = bottom - 1;
+            var a = array;
+            bottom = b;
+            var t = top;
+            if (t > b) {
+                bottom = b + 1;
+                return null;
+            }
+            var index = (int) b & (a.length - 1);
+            var task = (Runnable) SLOT.getAcquire(a, index);
+            if (t == b) {
+                // last element: race the thieves for it; the winner clears the slot
+                if (TOP.compareAndSet(this, t, t + 1)) {
+                    SLOT.setRelease(a, index, null);
+                } else {
+                    task = null;
+                }
+                bottom = b + 1;
+                return task;
+            }
+            SLOT.setRelease(a, index, null);
+            return task;
+        }
+
+        // Any thread, FIFO; null when empty or when another thread won the element
+        Runnable steal() {
+            var t = top;
+            var b = bottom;
+            if (t >= b) {
+                return null;
+            }
+            var a = array;
+            var index = (int) t & (a.length - 1);
+            var task = (Runnable) SLOT.getAcquire(a, index);
+            if (task == null || !TOP.compareAndSet(this, t, t + 1)) {
+                return null;
+            }
+            // so the deque does not keep the task reachable; only if the owner has not refilled the slot since
+            SLOT.compareAndSet(a, index, task, null);
+            return task;
+        }
+
+        boolean isEmpty() {
+            return top >= bottom;
+        }
+
+        int size() {
+            return (int) Math.max(0, bottom - top);
+        }
+
+        private Runnable[] grow(Runnable[] a, long b, long t) {
+            var grown = new Runnable[a.length << 1];
+            for (var i = t; i < b; i++) {
+                grown[(int) i & (grown.length - 1)] = a[(int) i & (a.length - 1)];
+            }
+            array = grown;
+            return grown;
+        }
+    }
+
+    private final class Worker extends Thread {
+        private final WorkDeque deque = new WorkDeque();
+        private final AtomicBoolean idle = new AtomicBoolean();
+
+        Worker(int index) {
+            super("WorkStealingWorker-" + index);
+        }
+
+        WorkStealingExecutor owner() {
+            return WorkStealingExecutor.this;
+        }
+
+        @Override
+        public void run() {
+            try {
+                while (true) {
+                    var task = findTask(this);
+                    if (task != null) {
+                        runTask(task);
+                    } else if (isShutdown()) {
+                        return;
+                    } else {
+                        park(this);
+                    }
+                }
+            } finally {
+                terminated.countDown();
+            }
+        }
+    }
+
+    private final Worker[] workers;
+    private final ConcurrentLinkedQueue<Runnable> injection = new ConcurrentLinkedQueue<>();
+    private final ConcurrentLinkedQueue<Worker> idleWorkers = new ConcurrentLinkedQueue<>();
+    private final CountDownLatch terminated;
+    private final LongAdder steals = new LongAdder();
+    private volatile boolean shutdown;
+
+    public WorkStealingExecutor(int parallelism) {
+        if (parallelism <= 0) {
+            throw new IllegalArgumentException("parallelism must be positive");
+        }
+        this.workers = new Worker[parallelism];
+        this.terminated = new CountDownLatch(parallelism);
+        for (int i = 0; i < parallelism; i++) {
+            workers[i] = new Worker(i);
+        }
+        for (var worker : workers) {
+            worker.start();
+        }
+    }
+
+    /**
+     * Pushes the task on the current worker's deque when called from one of this
+     * executor's workers, otherwise on the shared injection queue.
+     */
+    @Override
+    public void execute(Runnable command) {
+        if (command == null) {
+            throw new NullPointerException();
+        }
+        if (shutdown) {
+            throw new RejectedExecutionException("Executor is shut down");
+        }
+        var current = Thread.currentThread();
+        if (current instanceof Worker && ((Worker) current).owner() == this) {
+            ((Worker) current).deque.push(command);
+        } else {
+            injection.offer(command);
+        }
+        signalWork();
+    }
+
+    public long getStealCount() {
+        return steals.sum();
+    }
+
+    public int getParallelism() {
+        return workers.length;
+    }
+
+    public int getQueuedTaskCount() {
+        var queued = injection.size();
+        for (var worker : workers) {
+            queued += worker.deque.size();
+        }
+        return queued;
+    }
+
+    @Override
+    public void shutdown() {
+        shutdown = true;
+        for (var worker : workers) {
+            LockSupport.unpark(worker);
+        }
+    }
+
+    @Override
+    public List<Runnable> shutdownNow() {
+        shutdown = true;
+        var remaining = new ArrayList<Runnable>();
+        Runnable task;
+        while ((task = injection.poll()) != null) {
+            remaining.add(task);
+        }
+        // a steal also fails when it loses a race for an element, so drain until each deque is empty
+        for (var worker : workers) {
+            while (!worker.deque.isEmpty()) {
+                task = worker.deque.steal();
+                if (task != null) {
+                    remaining.add(task);
+                }
+            }
+        }
+        for (var worker : workers) {
+            worker.interrupt();
+            LockSupport.unpark(worker);
+        }
+        return remaining;
+    }
+
+    @Override
+    public boolean isShutdown() {
+        return shutdown;
+    }
+
+    @Override
+    public boolean isTerminated() {
+        return terminated.getCount() == 0;
+    }
+
+    @Override
+    public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+        return terminated.await(timeout, unit);
+    }
+
+    // Own deque first, then the injection queue, then a steal from a random victim
+    private Runnable findTask(Worker worker) {
+        var task = worker.deque.pop();
+        if (task != null) {
+            return task;
+        }
+        task = injection.poll();
+        if (task != null) {
+            return task;
+        }
+        var start = ThreadLocalRandom.current().nextInt(workers.length);
+        for (int i = 0; i < workers.length; i++) {
+            var victim = workers[(start + i) % workers.length];
+            if (victim == worker) {
+                continue;
+            }
+            task = victim.deque.steal();
+            if (task != null) {
+                steals.increment();
+                // more left behind: wake another idle worker to help
+                if (!victim.deque.isEmpty()) {
+                    signalWork();
+                }
+                return task;
+            }
+        }
+        return null;
+    }
+
+    private void park(Worker worker) {
+        if (worker.idle.compareAndSet(false, true)) {
+            idleWorkers.offer(worker);
+        }
+        // a task pushed before we were on the idle queue found nobody to wake
+        if (!hasQueuedTasks() && !shutdown) {
+            LockSupport.park(this);
+            Thread.interrupted();
+        }
+        // back to looking for work: leave the idle queue, or the next signal goes to a busy worker and is lost
+        if (worker.idle.compareAndSet(true, false)) {
+            idleWorkers.remove(worker);
+        }
+    }
+
+    // Wakes one idle worker, skipping entries of workers that went back to work in the meantime
+    private void signalWork() {
+        Worker worker;
+        while ((worker = idleWorkers.poll()) != null) {
+            if (worker.idle.compareAndSet(true, false)) {
+                LockSupport.unpark(worker);
+                return;
+            }
+        }
+    }
+
+    private boolean hasQueuedTasks() {
+        if (!injection.isEmpty()) {
+            return true;
+        }
+        for (var worker : workers) {
+            if (!worker.deque.isEmpty()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void runTask(Runnable task) {
+        try {
+            task.run();
+        } catch (RuntimeException | Error e) {
+            var current = Thread.currentThread();
+            current.getUncaughtExceptionHandler().uncaughtException(current, e);
+        }
+    }
+}
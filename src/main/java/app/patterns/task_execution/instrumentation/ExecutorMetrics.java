@@ -0,0 +1,289 @@
+package app.patterns.task_execution.instrumentation;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+/**
+ * Metrics for one executor: enqueue to start wait and start to end run time per
+ * task type, plus active count, queue depth and rejections.
+ * <p>
+ * Executors either hand tasks over through execute, or call onEnqueue before
+ * queueing a task, onStart and onEnd around its run, onDropped when it leaves the
+ * queue without running, and onRejected when the executor refuses it after
+ * onEnqueue. Each run is also emitted as a JFR event when recording is enabled.
+ */
+public class ExecutorMetrics implements ExecutorMetricsMXBean {
+
+    private static class TypeStats {
+        private final LatencyHistogram queueWait = new LatencyHistogram();
+        private final LatencyHistogram runTime = new LatencyHistogram();
+        private final LongAdder rejected = new LongAdder();
+    }
+
+    private final String executorName;
+    private final ConcurrentHashMap<String, TypeStats> stats = new ConcurrentHashMap<>();
+    private final AtomicInteger active = new AtomicInteger();
+    private final AtomicInteger queued = new AtomicInteger();
+    private final LongAdder completed = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+
+    public ExecutorMetrics(String executorName) {
+        this.executorName = executorName;
+    }
+
+    /**
+     * Registers these metrics on the platform MBean server under
+     * app.patterns.task_execution:type=ExecutorMetrics,name=executorName.
+     */
+    public ExecutorMetrics registerMBean() throws JMException {
+        var name = new ObjectName("app.patterns.task_execution:type=ExecutorMetrics,name="
+                + ObjectName.quote(executorName));
+        ManagementFactory.getPlatformMBeanServer().registerMBean(this, name);
+        return this;
+    }
+
+    /**
+     * Task type used when the caller gives none: the task's class name, with the
+     * lambda suffix removed so every lambda maps to its declaring class.
+     */
+    public static String typeOf(Object task) {
+        var name = task.getClass().getSimpleName();
+        var lambda = name.indexOf("$$Lambda");
+        return lambda > 0 ? name.substring(0, lambda) : name;
+    }
+
+    public long onEnqueue() {
+        queued.incrementAndGet();
+        return System.nanoTime();
+    }
+
+    public long onStart(String taskType, long enqueuedAt) {
+        queued.decrementAndGet();
+        active.incrementAndGet();
+        var startedAt = System.nanoTime();
+        statsOf(taskType).queueWait.record(startedAt - enqueuedAt);
+        return startedAt;
+    }
+
+    public void onEnd(String taskType, long enqueuedAt, long startedAt, boolean taskFailed) {
+        var endedAt = System.nanoTime();
+        active.decrementAndGet();
+        statsOf(taskType).runTime.record(endedAt - startedAt);
+        if (taskFailed) {
+            failed.increment();
+        } else {
+            completed.increment();
+        }
+        var event = new TaskExecutionEvent();
+        if (event.shouldCommit()) {
+            event.executor = executorName;
+            event.taskType = taskType;
+            event.queueWait = startedAt - enqueuedAt;
+            event.runTime = endedAt - startedAt;
+            event.failed = taskFailed;
+            event.commit();
+        }
+    }
+
+    public void onDropped(String taskType) {
+        queued.decrementAndGet();
+        dropped.increment();
+    }
+
+    public void onRejected(String taskType) {
+        queued.decrementAndGet();
+        rejected.increment();
+        statsOf(taskType).rejected.increment();
+        var event = new TaskRejectedEvent();
+        if (event.shouldCommit()) {
+            event.executor = executorName;
+            event.taskType = taskType;
+            event.commit();
+        }
+    }
+
+    /**
+     * Hands the task to the executor wrapped so its wait and run get recorded, and
+     * counts it as rejected if the executor refuses it. The task counts as failed
+     * when it throws or, for a Future, when it completes exceptionally.
+     */
+    public void execute(Executor executor, String taskType, Runnable task) {
+        var instrumented = new InstrumentedTask(taskType, task, onEnqueue());
+        try {
+            executor.execute(instrumented);
+        } catch (RejectedExecutionException e) {
+            onRejected(taskType);
+            throw e;
+        }
+    }
+
+    /**
+     * For the tasks shutdownNow drained from an executor fed through execute:
+     * counts each instrumented one as dropped, so it leaves the queue depth, and
+     * returns the tasks as they were handed to execute.
+     */
+    public List<Runnable> drained(List<Runnable> tasks) {
+        var unwrapped = new ArrayList<Runnable>(tasks.size());
+        for (var task : tasks) {
+            if (task instanceof InstrumentedTask && ((InstrumentedTask) task).metrics() == this) {
+                var instrumented = (InstrumentedTask) task;
+                onDropped(instrumented.taskType);
+                unwrapped.add(instrumented.task);
+            } else {
+                unwrapped.add(task);
+            }
+        }
+        return unwrapped;
+    }
+
+    private class InstrumentedTask implements Runnable {
+        private final String taskType;
+        private final Runnable task;
+        private final long enqueuedAt;
+
+        InstrumentedTask(String taskType, Runnable task, long enqueuedAt) {
+            this.taskType = taskType;
+            this.task = task;
+            this.enqueuedAt = enqueuedAt;
+        }
+
+        ExecutorMetrics metrics() {
+            return ExecutorMetrics.this;
+        }
+
+        @Override
+        public void run() {
+            var startedAt = onStart(taskType, enqueuedAt);
+            var taskFailed = true;
+            try {
+                task.run();
+                taskFailed = task instanceof Future<?> && completedExceptionally((Future<?>) task);
+            } finally {
+                onEnd(taskType, enqueuedAt, startedAt, taskFailed);
+            }
+        }
+    }
+
+    private static boolean completedExceptionally(Future<?> future) {
+        if (!future.isDone() || future.isCancelled()) {
+            return false;
+        }
+        try {
+            future.get();
+            return false;
+        } catch (ExecutionException e) {
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    public LatencyHistogram queueWait(String taskType) {
+        return statsOf(taskType).queueWait;
+    }
+
+    public LatencyHistogram runTime(String taskType) {
+        return statsOf(taskType).runTime;
+    }
+
+    private TypeStats statsOf(String taskType) {
+        var existing = stats.get(taskType);
+        return existing != null ? existing : stats.computeIfAbsent(taskType, t -> new TypeStats());
+    }
+
+    @Override
+    public int getActiveCount() {
+        return active.get();
+    }
+
+    @Override
+    public int getQueueDepth() {
+        return queued.get();
+    }
+
+    @Override
+    public long getCompletedCount() {
+        return completed.sum();
+    }
+
+    @Override
+    public long getFailedCount() {
+        return failed.sum();
+    }
+
+    @Override
+    public long getRejectedCount() {
+        return rejected.sum();
+    }
+
+    @Override
+    public long getDroppedCount() {
+        return dropped.sum();
+    }
+
+    @Override
+    public Map<String, Long> getRejectedCountByType() {
+        return byType(s -> s.rejected.sum());
+    }
+
+    @Override
+    public Map<String, Long> getQueueWaitP50Micros() {
+        return byType(s -> s.queueWait.percentile(50, TimeUnit.MICROSECONDS));
+    }
+
+    @Override
+    public Map<String, Long> getQueueWaitP99Micros() {
+        return byType(s -> s.queueWait.percentile(99, TimeUnit.MICROSECONDS));
+    }
+
+    @Override
+    public Map<String, Long> getQueueWaitMaxMicros() {
+        return byType(s -> s.queueWait.max(TimeUnit.MICROSECONDS));
+    }
+
+    @Override
+    public Map<String, Long> getRunTimeP50Micros() {
+        return byType(s -> s.runTime.percentile(50, TimeUnit.MICROSECONDS));
+    }
+
+    @Override
+    public Map<String, Long> getRunTimeP99Micros() {
+        return byType(s -> s.runTime.percentile(99, TimeUnit.MICROSECONDS));
+    }
+
+    @Override
+    public Map<String, Long> getRunTimeMaxMicros() {
+        return byType(s -> s.runTime.max(TimeUnit.MICROSECONDS));
+    }
+
+    @Override
+    public void resetHistograms() {
+        stats.values().forEach(s -> {
+            s.queueWait.reset();
+            s.runTime.reset();
+        });
+    }
+
+    private Map<String, Long> byType(Function<TypeStats, Long> metric) {
+        var result = new TreeMap<String, Long>();
+        stats.forEach((type, s) -> result.put(type, metric.apply(s)));
+        return result;
+    }
+}
@@ -0,0 +1,38 @@
+package app.patterns.task_execution.instrumentation;
+
+import java.util.Map;
+
+/**
+ * JMX view of {@link ExecutorMetrics}. Latency maps are keyed by task type and
+ * hold microseconds.
+ */
+public interface ExecutorMetricsMXBean {
+
+    int getActiveCount();
+
+    int getQueueDepth();
+
+    long getCompletedCount();
+
+    long getFailedCount();
+
+    long getRejectedCount();
+
+    long getDroppedCount();
+
+    Map<String, Long> getRejectedCountByType();
+
+    Map<String, Long> getQueueWaitP50Micros();
+
+    Map<String, Long> getQueueWaitP99Micros();
+
+    Map<String, Long> getQueueWaitMaxMicros();
+
+    Map<String, Long> getRunTimeP50Micros();
+
+    Map<String, Long> getRunTimeP99Micros();
+
+    Map<String, Long> getRunTimeMaxMicros();
+
+    void resetHistograms();
+}
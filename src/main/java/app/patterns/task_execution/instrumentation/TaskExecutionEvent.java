@@ -0,0 +1,37 @@
+package app.patterns.task_execution.instrumentation;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * JFR event for one finished task, with its queue wait and run time.
+ */
+@Name("app.patterns.TaskExecution")
+@Label("Task Execution")
+@Category({"Application", "Executors"})
+@Description("A task ran on an instrumented executor")
+@StackTrace(false)
+class TaskExecutionEvent extends Event {
+
+    @Label("Executor")
+    String executor;
+
+    @Label("Task Type")
+    String taskType;
+
+    @Label("Queue Wait")
+    @Timespan(Timespan.NANOSECONDS)
+    long queueWait;
+
+    @Label("Run Time")
+    @Timespan(Timespan.NANOSECONDS)
+    long runTime;
+
+    @Label("Failed")
+    boolean failed;
+}
@@ -0,0 +1,23 @@
+package app.patterns.task_execution.instrumentation;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * JFR event for a task the executor refused to accept.
+ */
+@Name("app.patterns.TaskRejected")
+@Label("Task Rejected")
+@Category({"Application", "Executors"})
+@Description("A task was rejected by an instrumented executor")
+class TaskRejectedEvent extends Event {
+
+    @Label("Executor")
+    String executor;
+
+    @Label("Task Type")
+    String taskType;
+}
@@ -0,0 +1,189 @@
+package app.patterns.task_execution.limit;
+
+import app.patterns.task_execution.ObservableFutureTask;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Pattern: Adaptive Concurrency Limit
+ * <p>
+ * Motivations: A fixed pool size is a guess. When downstream latency rises, more
+ * tasks in flight only add queueing and make every task slower.
+ * <p>
+ * Intent: Admission gate in front of an executor. It bounds the tasks in flight
+ * by a limit that a LimitAlgorithm moves up or down from the latency of finished
+ * tasks, and rejects the rest right away so callers can shed load.
+ * <p>
+ * Applicability: Tasks calling a downstream whose capacity changes over time.
+ * <p>
+ * Usage with either executor:
+ * <p>
+ * limiter.submit(task, backgroundExecutor::execute)
+ * <p>
+ * limiter.submit(task, t -> enhancedExecutor.submit(t, Priority.NORMAL))
+ */
+public class AdaptiveConcurrencyLimiter {
+
+    private final LimitAlgorithm algorithm;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final LongAdder rejected = new LongAdder();
+
+    public AdaptiveConcurrencyLimiter(LimitAlgorithm algorithm) {
+        this.algorithm = algorithm;
+    }
+
+    /**
+     * Admits the task if the limit allows it and hands it to the submitter. The
+     * latency from admission to completion of each run is fed back to the
+     * algorithm. The permit is held until the run ends, even when the future is
+     * cancelled while the task runs, and given back without a sample when the
+     * future completes without running: cancelled or shed while queued, or
+     * drained by shutdownNow and then cancelled. Completions without a run are
+     * seen for the futures of this package's executors (ObservableFutureTask);
+     * for other futures only a cancel through the returned future is.
+     *
+     * @throws RejectedExecutionException when the limit is reached
+     */
+    public <T> Future<T> submit(Callable<T> task, Function<Callable<T>, Future<T>> submitter) {
+        if (!tryAcquire()) {
+            rejected.increment();
+            throw new RejectedExecutionException("Concurrency limit of " + algorithm.getLimit() + " reached");
+        }
+        var permit = new Permit(inFlight.get());
+        Callable<T> measured = () -> {
+            if (!permit.start()) {
+                // the future completed while the task was being picked up, so its permit is already back
+                return task.call();
+            }
+            var dropped = false;
+            try {
+                return task.call();
+            } catch (TimeoutException | RejectedExecutionException e) {
+                dropped = true;
+                throw e;
+            } finally {
+                permit.finish(dropped);
+            }
+        };
+        Future<T> future;
+        try {
+            future = submitter.apply(measured);
+        } catch (RuntimeException e) {
+            permit.discard();
+            throw e;
+        }
+        if (future instanceof ObservableFutureTask) {
+            ((ObservableFutureTask<T>) future).whenDone(permit::discard);
+            return future;
+        }
+        return new LimitedFuture<>(future, permit);
+    }
+
+    private boolean tryAcquire() {
+        int current;
+        do {
+            current = inFlight.get();
+            if (current >= algorithm.getLimit()) {
+                return false;
+            }
+        } while (!inFlight.compareAndSet(current, current + 1));
+        return true;
+    }
+
+    public int getLimit() {
+        return algorithm.getLimit();
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    public long getRejectedCount() {
+        return rejected.sum();
+    }
+
+    /*
+     * One admission, released exactly once: by the run that took it, after the
+     * task returns, or without a sample by whoever sees the future complete
+     * before the task started.
+     */
+    private class Permit {
+        private static final int QUEUED = 0;
+        private static final int RUNNING = 1;
+        private static final int RELEASED = 2;
+
+        private final long admittedAt = System.nanoTime();
+        private final int inFlightAtAdmission;
+        private final AtomicInteger state = new AtomicInteger(QUEUED);
+
+        Permit(int inFlightAtAdmission) {
+            this.inFlightAtAdmission = inFlightAtAdmission;
+        }
+
+        boolean start() {
+            return state.compareAndSet(QUEUED, RUNNING);
+        }
+
+        void finish(boolean dropped) {
+            if (state.compareAndSet(RUNNING, RELEASED)) {
+                inFlight.decrementAndGet();
+                algorithm.onSample(System.nanoTime() - admittedAt, inFlightAtAdmission, dropped);
+            }
+        }
+
+        // no-op once the task has started: its run releases the permit when it returns
+        void discard() {
+            if (state.compareAndSet(QUEUED, RELEASED)) {
+                inFlight.decrementAndGet();
+            }
+        }
+    }
+
+    // For futures of other executors, which only show a completion without a run when cancelled through here
+    private static class LimitedFuture<T> implements Future<T> {
+        private final Future<T> delegate;
+        private final AdaptiveConcurrencyLimiter.Permit permit;
+
+        LimitedFuture(Future<T> delegate, AdaptiveConcurrencyLimiter.Permit permit) {
+            this.delegate = delegate;
+            this.permit = permit;
+        }
+
+        @Override
+        public boolean cancel(boolean mayInterruptIfRunning) {
+            var cancelled = delegate.cancel(mayInterruptIfRunning);
+            if (cancelled) {
+                // a task cancelled before it ran never reaches the measuring wrapper
+                permit.discard();
+            }
+            return cancelled;
+        }
+
+        @Override
+        public boolean isCancelled() {
+            return delegate.isCancelled();
+        }
+
+        @Override
+        public boolean isDone() {
+            return delegate.isDone();
+        }
+
+        @Override
+        public T get() throws InterruptedException, ExecutionException {
+            return delegate.get();
+        }
+
+        @Override
+        public T get(long timeout, TimeUnit unit) throws InterruptedException, ExecutionException, TimeoutException {
+            return delegate.get(timeout, unit);
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package app.patterns.task_execution.limit;
+
+/**
+ * Latency gradient limit: compares a short-term average latency with the no-load
+ * latency, the minimum seen recently. While they match the limit grows by a
+ * queue allowance of about sqrt(limit); when the short-term latency rises above
+ * the baseline the limit shrinks in proportion, because the extra tasks are only
+ * queueing downstream. The baseline drifts up slowly so a lasting change in the
+ * downstream is learned again.
+ */
+public class GradientLimit implements LimitAlgorithm {
+
+    private static final double SHORT_WINDOW_WEIGHT = 0.1;
+    private static final double BASELINE_DRIFT = 0.001;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final double tolerance;
+    private final double smoothing;
+    private volatile int limit;
+    private double estimatedLimit;
+    private double shortRtt;
+    private double noLoadRtt;
+
+    /**
+     * tolerance is how much the short-term latency may exceed the no-load latency before
+     * the limit drops, e.g. 1.5; smoothing is how much of each new estimate is
+     * applied, e.g. 0.2.
+     */
+    public GradientLimit(int initialLimit, int minLimit, int maxLimit, double tolerance, double smoothing) {
+        if (tolerance < 1) {
+            throw new IllegalArgumentException("tolerance must be at least 1");
+        }
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.tolerance = tolerance;
+        this.smoothing = smoothing;
+        this.limit = initialLimit;
+        this.estimatedLimit = initialLimit;
+    }
+
+    public GradientLimit(int initialLimit, int minLimit, int maxLimit) {
+        this(initialLimit, minLimit, maxLimit, 1.5, 0.2);
+    }
+
+    @Override
+    public int getLimit() {
+        return limit;
+    }
+
+    @Override
+    public synchronized void onSample(long rttNanos, int inFlight, boolean dropped) {
+        if (noLoadRtt == 0) {
+            shortRtt = rttNanos;
+            noLoadRtt = rttNanos;
+            return;
+        }
+        shortRtt += (rttNanos - shortRtt) * SHORT_WINDOW_WEIGHT;
+        noLoadRtt = Math.min(rttNanos, noLoadRtt * (1 + BASELINE_DRIFT));
+        // app-limited: too few tasks in flight to learn anything about the downstream
+        if (inFlight < estimatedLimit / 2 && !dropped) {
+            return;
+        }
+        var gradient = Math.max(0.5, Math.min(1.0, tolerance * noLoadRtt / shortRtt));
+        if (dropped) {
+            gradient = 0.5;
+        }
+        var queueAllowance = Math.sqrt(estimatedLimit);
+        var newLimit = estimatedLimit * gradient + queueAllowance;
+        newLimit = estimatedLimit * (1 - smoothing) + newLimit * smoothing;
+        estimatedLimit = Math.max(minLimit, Math.min(maxLimit, newLimit));
+        limit = (int) estimatedLimit;
+    }
+}
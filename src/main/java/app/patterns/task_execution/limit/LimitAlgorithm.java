@@ -0,0 +1,16 @@
+package app.patterns.task_execution.limit;
+
+/**
+ * Computes the number of tasks allowed in flight from observed latencies.
+ */
+public interface LimitAlgorithm {
+
+    int getLimit();
+
+    /**
+     * Called once per finished task with its admission to completion latency and
+     * the number of tasks that were in flight when it was admitted. dropped marks
+     * a task that timed out or was rejected downstream.
+     */
+    void onSample(long rttNanos, int inFlight, boolean dropped);
+}
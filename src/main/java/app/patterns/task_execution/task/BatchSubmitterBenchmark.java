@@ -0,0 +1,60 @@
+package app.patterns.task_execution.task;
+
+import app.patterns.task_execution.BatchSubmitter;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/*
+ * One million trivial callables submitted one by one versus through a
+ * BatchSubmitter, on the same fixed pool. Dummy benchmark, run it on your machine.
+ */
+public class BatchSubmitterBenchmark {
+
+    private static final int TASKS = 1_000_000;
+
+    public static void main(String[] args) throws Exception {
+        var cores = Runtime.getRuntime().availableProcessors();
+        var executor = Executors.newFixedThreadPool(cores);
+        var batchSubmitter = new BatchSubmitter(executor);
+        var tasks = new ArrayList<Callable<Integer>>(TASKS);
+        for (int i = 0; i < TASKS; i++) {
+            var value = i;
+            tasks.add(() -> value & 1);
+        }
+
+        for (int round = 0; round < 3; round++) {
+            var before = System.nanoTime();
+            var futures = new ArrayList<Future<Integer>>(TASKS);
+            for (var task : tasks) {
+                futures.add(executor.submit(task));
+            }
+            report("One by one", checksum(futures), System.nanoTime() - before);
+
+            before = System.nanoTime();
+            List<Integer> results = batchSubmitter.submitAll(tasks).get();
+            report("Batched (chunk " + batchSubmitter.getChunkSize(TASKS) + ")",
+                    results.stream().mapToLong(Integer::longValue).sum(), System.nanoTime() - before);
+            System.out.println("######\n");
+        }
+        executor.shutdown();
+        executor.awaitTermination(10, TimeUnit.SECONDS);
+    }
+
+    private static long checksum(List<Future<Integer>> futures) throws Exception {
+        var sum = 0L;
+        for (var future : futures) {
+            sum += future.get();
+        }
+        return sum;
+    }
+
+    private static void report(String name, long checksum, long elapsedNanos) {
+        System.out.println(name + ": " + TimeUnit.NANOSECONDS.toMillis(elapsedNanos) + " ms, "
+                + elapsedNanos / TASKS + " ns/task, checksum " + checksum);
+    }
+}
@@ -0,0 +1,31 @@
+package app.patterns.task_execution.task;
+
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Thrown when a bulkhead compartment refuses a task, with the reason so callers
+ * can shed load early.
+ */
+public class BulkheadRejectedException extends RejectedExecutionException {
+
+    private static final long serialVersionUID = 1L;
+
+    public enum Reason {UNKNOWN_COMPARTMENT, QUEUE_FULL, SHUTDOWN}
+
+    private final String compartment;
+    private final Reason reason;
+
+    public BulkheadRejectedException(String compartment, Reason reason) {
+        super("Compartment '" + compartment + "' rejected the task: " + reason);
+        this.compartment = compartment;
+        this.reason = reason;
+    }
+
+    public String getCompartment() {
+        return compartment;
+    }
+
+    public Reason getReason() {
+        return reason;
+    }
+}
@@ -0,0 +1,221 @@
+package app.patterns.task_execution.task;
+
+import app.patterns.GuardedBy;
+import app.patterns.ThreadSafe;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+/**
+ * Pattern: Bulkhead
+ * <p>
+ * Motivations: When tasks from every tenant share one queue, a single noisy
+ * tenant fills it and raises latency for everyone.
+ * <p>
+ * Intent: Split tasks into named compartments, each with its own limit of
+ * running and queued tasks. A shared overflow of extra slots lets a busy
+ * compartment go past its own limit while others leave capacity unused. Free
+ * slots are handed out across compartments by deficit round robin, weighted by
+ * each compartment's quantum.
+ * <p>
+ * Applicability: Multi-tenant executors, or isolating calls to different
+ * downstreams from each other.
+ * <p>
+ * Each accepted task is expected to come with one dispatch attempt: pollOrPark
+ * either returns a task to run or parks the attempt until a running task
+ * finishes and frees a slot.
+ */
+@ThreadSafe
+public class Bulkheads<T extends Comparable<? super T>> {
+
+    public static class Slot<T> {
+        private final T task;
+        private final Compartment<T> compartment;
+        private final boolean overflow;
+
+        private Slot(T task, Compartment<T> compartment, boolean overflow) {
+            this.task = task;
+            this.compartment = compartment;
+            this.overflow = overflow;
+        }
+
+        public T task() {
+            return task;
+        }
+    }
+
+    private static class Compartment<T> {
+        private final String name;
+        private final int maxConcurrent;
+        private final int maxQueued;
+        private final int quantum;
+        private final PriorityQueue<T> queue = new PriorityQueue<>();
+        private int running;
+        private int overflowRunning;
+        private int deficit;
+
+        Compartment(String name, int maxConcurrent, int maxQueued, int quantum) {
+            this.name = name;
+            this.maxConcurrent = maxConcurrent;
+            this.maxQueued = maxQueued;
+            this.quantum = quantum;
+        }
+    }
+
+    @GuardedBy("this")
+    private final Map<String, Compartment<T>> compartments = new HashMap<>();
+    @GuardedBy("this")
+    private final List<Compartment<T>> rotation = new ArrayList<>();
+    @GuardedBy("this")
+    private int cursor;
+    @GuardedBy("this")
+    private int overflowCapacity;
+    @GuardedBy("this")
+    private int overflowInUse;
+    @GuardedBy("this")
+    private int parkedDispatches;
+
+    // maxQueued bounds the tasks waiting for a slot; zero admits a task only when it can start right away
+    public synchronized void register(String name, int maxConcurrent, int maxQueued, int quantum) {
+        if (maxConcurrent < 1 || maxQueued < 0 || quantum < 1) {
+            throw new IllegalArgumentException("Invalid limits for compartment " + name);
+        }
+        if (compartments.containsKey(name)) {
+            throw new IllegalArgumentException("Compartment " + name + " is already registered");
+        }
+        var compartment = new Compartment<T>(name, maxConcurrent, maxQueued, quantum);
+        compartments.put(name, compartment);
+        rotation.add(compartment);
+    }
+
+    // Extra slots any compartment may borrow once its own maxConcurrent is in use
+    public synchronized void setOverflowCapacity(int slots) {
+        this.overflowCapacity = slots;
+    }
+
+    public synchronized void admit(String name, T task) {
+        var compartment = compartments.get(name);
+        if (compartment == null) {
+            throw new BulkheadRejectedException(name, BulkheadRejectedException.Reason.UNKNOWN_COMPARTMENT);
+        }
+        // queued tasks that free slots will take at once are about to start, not waiting
+        var waiting = compartment.queue.size() - freeSlots(compartment);
+        if (waiting >= compartment.maxQueued) {
+            throw new BulkheadRejectedException(name, BulkheadRejectedException.Reason.QUEUE_FULL);
+        }
+        compartment.queue.add(task);
+    }
+
+    public synchronized boolean remove(String name, T task) {
+        var compartment = compartments.get(name);
+        return compartment != null && compartment.queue.remove(task);
+    }
+
+    /**
+     * Next task to run, or null when every compartment with queued tasks is at its
+     * limit; the dispatch attempt is then parked and taken over by the next task
+     * to finish.
+     */
+    public synchronized Slot<T> pollOrPark() {
+        var next = pollNext();
+        if (next == null) {
+            parkedDispatches++;
+        }
+        return next;
+    }
+
+    /**
+     * Frees the slot of a finished task and, if a dispatch attempt is parked,
+     * returns the task it should run now.
+     */
+    public synchronized Slot<T> releaseAndPollParked(Slot<T> finished) {
+        if (finished.overflow) {
+            finished.compartment.overflowRunning--;
+            overflowInUse--;
+        } else {
+            finished.compartment.running--;
+        }
+        if (parkedDispatches == 0) {
+            return null;
+        }
+        var next = pollNext();
+        if (next != null) {
+            parkedDispatches--;
+        }
+        return next;
+    }
+
+    // A dispatch attempt owed to the queue that could not be handed to a worker; the next task to finish takes it over
+    public synchronized void parkDispatch() {
+        parkedDispatches++;
+    }
+
+    // Removes and returns every queued task, for a forced shutdown
+    public synchronized List<T> drainQueued() {
+        var drained = new ArrayList<T>();
+        for (var compartment : rotation) {
+            drained.addAll(compartment.queue);
+            compartment.queue.clear();
+        }
+        return drained;
+    }
+
+    public synchronized int queued(String name) {
+        var compartment = compartments.get(name);
+        return compartment == null ? 0 : compartment.queue.size();
+    }
+
+    public synchronized int running(String name) {
+        var compartment = compartments.get(name);
+        return compartment == null ? 0 : compartment.running + compartment.overflowRunning;
+    }
+
+    @GuardedBy("this")
+    private Slot<T> pollNext() {
+        for (int visited = 0; visited < rotation.size(); visited++) {
+            var compartment = rotation.get(cursor);
+            if (compartment.queue.isEmpty()) {
+                compartment.deficit = 0;
+                advance();
+                continue;
+            }
+            var ownSlot = compartment.running < compartment.maxConcurrent;
+            if (!ownSlot && overflowInUse >= overflowCapacity) {
+                advance();
+                continue;
+            }
+            if (compartment.deficit <= 0) {
+                compartment.deficit += compartment.quantum;
+            }
+            var task = compartment.queue.poll();
+            compartment.deficit--;
+            if (ownSlot) {
+                compartment.running++;
+            } else {
+                compartment.overflowRunning++;
+                overflowInUse++;
+            }
+            // stay on this compartment until its quantum is spent
+            if (compartment.deficit <= 0) {
+                advance();
+            }
+            return new Slot<>(task, compartment, !ownSlot);
+        }
+        return null;
+    }
+
+    // own slots plus the overflow slots still free, which other compartments may also claim
+    @GuardedBy("this")
+    private int freeSlots(Compartment<T> compartment) {
+        return Math.max(0, compartment.maxConcurrent - compartment.running)
+                + Math.max(0, overflowCapacity - overflowInUse);
+    }
+
+    @GuardedBy("this")
+    private void advance() {
+        cursor = (cursor + 1) % rotation.size();
+    }
+}
@@ -0,0 +1,255 @@
+package app.patterns.task_execution.task;
+
+import app.patterns.ThreadSafe;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Pattern: Circuit Breaker
+ * <p>
+ * Motivations: When a dependency goes down, retrying every task against it only
+ * adds load to something already overloaded, and ties up workers waiting on it.
+ * <p>
+ * Intent: Track the failure rate and slow-call rate of recent calls in a sliding
+ * time window. Past either threshold the breaker opens and calls fail fast.
+ * After a wait it lets a few probe calls through (half-open): if they all succeed
+ * it closes again, if any fails it opens again.
+ * <p>
+ * Applicability: Calls to a remote or shared dependency that can fail as a whole.
+ * <p>
+ * Lock-free: state changes are compare-and-set on an immutable phase, and the
+ * window is a ring of time buckets replaced by compare-and-set when they age out.
+ */
+@ThreadSafe
+public class CircuitBreaker {
+
+    public enum State {CLOSED, OPEN, HALF_OPEN}
+
+    private static final int WINDOW_BUCKETS = 10;
+
+    private static final class Phase {
+        private final State state;
+        private final long since;
+        private final AtomicInteger permits;
+        private final AtomicInteger successes = new AtomicInteger();
+
+        Phase(State state, long since, int permits) {
+            this.state = state;
+            this.since = since;
+            this.permits = new AtomicInteger(permits);
+        }
+    }
+
+    private static final class Bucket {
+        private final long epoch;
+        private final LongAdder calls = new LongAdder();
+        private final LongAdder failures = new LongAdder();
+        private final LongAdder slowCalls = new LongAdder();
+
+        Bucket(long epoch) {
+            this.epoch = epoch;
+        }
+    }
+
+    private final float failureRateThreshold;
+    private final float slowCallRateThreshold;
+    private final long slowCallNanos;
+    private final long bucketNanos;
+    private final int minimumCalls;
+    private final long openNanos;
+    private final int halfOpenCalls;
+    private final AtomicReference<Phase> phase;
+    private final AtomicReferenceArray<Bucket> window = new AtomicReferenceArray<>(WINDOW_BUCKETS);
+
+    /**
+     * Rates are percentages (0 to 100) over the last windowMs; they are only
+     * evaluated once the window holds minimumCalls calls. The breaker stays open
+     * for openMs, then lets halfOpenCalls probe calls through.
+     */
+    public CircuitBreaker(float failureRateThreshold, float slowCallRateThreshold, long slowCallMs,
+                          long windowMs, int minimumCalls, long openMs, int halfOpenCalls) {
+        this.failureRateThreshold = failureRateThreshold;
+        this.slowCallRateThreshold = slowCallRateThreshold;
+        this.slowCallNanos = TimeUnit.MILLISECONDS.toNanos(slowCallMs);
+        this.bucketNanos = Math.max(1, TimeUnit.MILLISECONDS.toNanos(windowMs) / WINDOW_BUCKETS);
+        this.minimumCalls = minimumCalls;
+        this.openNanos = TimeUnit.MILLISECONDS.toNanos(openMs);
+        this.halfOpenCalls = halfOpenCalls;
+        this.phase = new AtomicReference<>(new Phase(State.CLOSED, System.nanoTime(), 0));
+        resetWindow();
+    }
+
+    public State getState() {
+        return phase.get().state;
+    }
+
+    /**
+     * Whether a call would be permitted now, without taking a half-open probe
+     * permit. Used to fail fast before a task is queued.
+     */
+    public boolean isCallPermitted() {
+        var current = phase.get();
+        switch (current.state) {
+            case CLOSED:
+                return true;
+            case OPEN:
+                return System.nanoTime() - current.since >= openNanos;
+            default:
+                return current.permits.get() > 0;
+        }
+    }
+
+    // Takes permission for one call; every permitted call must end in onSuccess or onError
+    public boolean tryAcquirePermission() {
+        return acquire() != null;
+    }
+
+    // The phase that admitted the call, or null when it is not permitted
+    private Phase acquire() {
+        while (true) {
+            var current = phase.get();
+            switch (current.state) {
+                case CLOSED:
+                    return current;
+                case OPEN:
+                    if (System.nanoTime() - current.since < openNanos) {
+                        return null;
+                    }
+                    phase.compareAndSet(current, new Phase(State.HALF_OPEN, System.nanoTime(), halfOpenCalls));
+                    break;
+                default:
+                    return current.permits.getAndDecrement() > 0 ? current : null;
+            }
+        }
+    }
+
+    // Results reported here count against the phase current when they arrive
+    public void onSuccess(long durationNanos) {
+        onResult(phase.get(), false, durationNanos >= slowCallNanos);
+    }
+
+    public void onError(long durationNanos) {
+        onResult(phase.get(), true, durationNanos >= slowCallNanos);
+    }
+
+    /*
+     * The result is recorded in finally, so an Error from a half-open probe still
+     * reopens the breaker instead of leaving the phase waiting for a result that
+     * never comes. It only counts against the phase that admitted the call.
+     */
+    public <T> T execute(Callable<T> task) throws Exception {
+        var admittedBy = acquire();
+        if (admittedBy == null) {
+            throw new CircuitBreakerOpenException(getState());
+        }
+        var start = System.nanoTime();
+        var failed = true;
+        try {
+            T result = task.call();
+            failed = false;
+            return result;
+        } finally {
+            onResult(admittedBy, failed, System.nanoTime() - start >= slowCallNanos);
+        }
+    }
+
+    public float getFailureRate() {
+        var totals = totals();
+        return totals[0] == 0 ? 0 : 100f * totals[1] / totals[0];
+    }
+
+    public float getSlowCallRate() {
+        var totals = totals();
+        return totals[0] == 0 ? 0 : 100f * totals[2] / totals[0];
+    }
+
+    private void onResult(Phase admittedBy, boolean failed, boolean slow) {
+        var current = phase.get();
+        if (current != admittedBy) {
+            // stale: the call was admitted by an earlier phase, e.g. before the breaker opened or in
+            // an earlier half-open round
+            return;
+        }
+        switch (current.state) {
+            case HALF_OPEN:
+                if (failed || slow) {
+                    phase.compareAndSet(current, new Phase(State.OPEN, System.nanoTime(), 0));
+                } else if (current.successes.incrementAndGet() >= halfOpenCalls
+                        && phase.compareAndSet(current, new Phase(State.CLOSED, System.nanoTime(), 0))) {
+                    resetWindow();
+                }
+                break;
+            case CLOSED:
+                record(failed, slow);
+                // rates only go up on a failed or slow call, so successes skip the evaluation
+                if ((failed || slow) && thresholdExceeded()) {
+                    phase.compareAndSet(current, new Phase(State.OPEN, System.nanoTime(), 0));
+                }
+                break;
+            default:
+                // reported through onSuccess or onError while open
+                break;
+        }
+    }
+
+    private void record(boolean failed, boolean slow) {
+        var bucket = currentBucket();
+        bucket.calls.increment();
+        if (failed) {
+            bucket.failures.increment();
+        }
+        if (slow) {
+            bucket.slowCalls.increment();
+        }
+    }
+
+    private Bucket currentBucket() {
+        var epoch = System.nanoTime() / bucketNanos;
+        var index = (int) Math.floorMod(epoch, (long) WINDOW_BUCKETS);
+        while (true) {
+            var bucket = window.get(index);
+            if (bucket.epoch == epoch) {
+                return bucket;
+            }
+            var fresh = new Bucket(epoch);
+            if (window.compareAndSet(index, bucket, fresh)) {
+                return fresh;
+            }
+        }
+    }
+
+    private boolean thresholdExceeded() {
+        var totals = totals();
+        if (totals[0] < minimumCalls) {
+            return false;
+        }
+        return 100f * totals[1] / totals[0] >= failureRateThreshold
+                || 100f * totals[2] / totals[0] >= slowCallRateThreshold;
+    }
+
+    // calls, failures, slow calls over the buckets still inside the window
+    private long[] totals() {
+        var oldestEpoch = System.nanoTime() / bucketNanos - WINDOW_BUCKETS + 1;
+        var totals = new long[3];
+        for (int i = 0; i < WINDOW_BUCKETS; i++) {
+            var bucket = window.get(i);
+            if (bucket.epoch >= oldestEpoch) {
+                totals[0] += bucket.calls.sum();
+                totals[1] += bucket.failures.sum();
+                totals[2] += bucket.slowCalls.sum();
+            }
+        }
+        return totals;
+    }
+
+    private void resetWindow() {
+        for (int i = 0; i < WINDOW_BUCKETS; i++) {
+            window.set(i, new Bucket(Long.MIN_VALUE));
+        }
+    }
+}
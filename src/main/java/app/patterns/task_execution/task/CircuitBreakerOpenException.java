@@ -0,0 +1,14 @@
+package app.patterns.task_execution.task;
+
+/**
+ * Thrown instead of running a task while its circuit breaker does not permit
+ * calls.
+ */
+public class CircuitBreakerOpenException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    public CircuitBreakerOpenException(CircuitBreaker.State state) {
+        super("Circuit breaker is " + state + ", call not permitted");
+    }
+}
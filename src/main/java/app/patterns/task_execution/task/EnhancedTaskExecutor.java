@@ -1,57 +1,160 @@
 package app.patterns.task_execution.task;
 
+import app.patterns.task_execution.ExecutionMode;
+import app.patterns.task_execution.HashedWheelTimer;
+import app.patterns.task_execution.ObservableFutureTask;
+import app.patterns.task_execution.SemaphoreBoundedExecutor;
+import app.patterns.task_execution.instrumentation.ExecutorMetrics;
+import app.patterns.task_execution.instrumentation.LatencyHistogram;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Future;
-import java.util.concurrent.FutureTask;
 import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
 import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.IntConsumer;
 
 public class EnhancedTaskExecutor {
-    private final ThreadPoolExecutor executor;
+    private static final long TIMER_TICK_MILLIS = 1;
+    private static final int TIMER_WHEEL_SIZE = 512;
+
+    private final ExecutorService executor;
+    private final ExecutorMetrics metrics;
+    private final AtomicLongArray shedCounts = new AtomicLongArray(Priority.values().length);
+    private final AtomicLong submissions = new AtomicLong();
+    private final Bulkheads<PriorityTask<?>> bulkheads = new Bulkheads<>();
+    private volatile HashedWheelTimer timer;
 
     public enum Priority {HIGH, NORMAL, LOW}
 
     public EnhancedTaskExecutor(int corePoolSize) {
+        this(corePoolSize, ExecutionMode.PLATFORM);
+    }
+
+    public EnhancedTaskExecutor(int corePoolSize, ExecutionMode mode) {
+        this(corePoolSize, mode, null);
+    }
+
+    // With metrics, queue wait and run time of every task are recorded under its task type
+    public EnhancedTaskExecutor(int corePoolSize, ExecutionMode mode, ExecutorMetrics metrics) {
+        this.metrics = metrics;
         // Create priority-based executor
         BlockingQueue<Runnable> workQueue = new PriorityBlockingQueue<>();
-        this.executor = new ThreadPoolExecutor(
-                corePoolSize,
-                corePoolSize,
-                0L, TimeUnit.MILLISECONDS,
-                workQueue,
-                new PriorityThreadFactory()
-        );
+        if (mode == ExecutionMode.VIRTUAL) {
+            // Thread per task; corePoolSize becomes the concurrency limit and the queue still orders by priority
+            this.executor = new SemaphoreBoundedExecutor(
+                    corePoolSize,
+                    workQueue,
+                    SemaphoreBoundedExecutor.perTaskThreadFactory("PriorityWorker-")
+            );
+        } else {
+            this.executor = new ThreadPoolExecutor(
+                    corePoolSize,
+                    corePoolSize,
+                    0L, TimeUnit.MILLISECONDS,
+                    workQueue,
+                    new PriorityThreadFactory()
+            );
+        }
     }
 
-    // Priority Task Wrapper
-    private static class PriorityTask<T> implements Runnable, Comparable<PriorityTask<?>> {
+    // Priority Task Wrapper: ordered by priority, then earliest deadline first, then submission order
+    private class PriorityTask<T> implements Runnable, Comparable<PriorityTask<?>> {
         private final Callable<T> task;
         private final Priority priority;
-        private final FutureTask<T> futureTask;
+        private final DeadlineFutureTask<T> futureTask;
+        private final boolean hasDeadline;
+        private final long deadlineNanos;
+        private final long sequence;
+        private final String taskType;
+        private final String compartment;
+        private long enqueuedAt;
 
-        PriorityTask(Callable<T> task, Priority priority) {
+        PriorityTask(Callable<T> task, Priority priority, String taskType) {
+            this(task, priority, taskType, null, false, 0L);
+        }
+
+        PriorityTask(Callable<T> task, Priority priority, String taskType, long deadlineNanos) {
+            this(task, priority, taskType, null, true, deadlineNanos);
+        }
+
+        private PriorityTask(Callable<T> task, Priority priority, String taskType, String compartment,
+                             boolean hasDeadline, long deadlineNanos) {
             this.task = task;
             this.priority = priority;
-            this.futureTask = new FutureTask<>(task);
+            this.futureTask = new DeadlineFutureTask<>(task);
+            this.hasDeadline = hasDeadline;
+            this.deadlineNanos = deadlineNanos;
+            this.sequence = submissions.getAndIncrement();
+            this.taskType = taskType;
+            this.compartment = compartment;
         }
 
         @Override
         public void run() {
-            futureTask.run();
+            if (compartment != null) {
+                dispatchBulkheads();
+            } else {
+                runDirect();
+            }
+        }
+
+        private void runDirect() {
+            // Stale work is dropped before it takes the worker, keeping capacity for tasks that can still make it
+            if (hasDeadline && System.nanoTime() - deadlineNanos >= 0) {
+                if (futureTask.shed()) {
+                    shedCounts.incrementAndGet(priority.ordinal());
+                }
+                if (metrics != null) {
+                    metrics.onDropped(taskType);
+                }
+                return;
+            }
+            if (metrics == null) {
+                futureTask.run();
+                return;
+            }
+            var startedAt = metrics.onStart(taskType, enqueuedAt);
+            try {
+                futureTask.run();
+            } finally {
+                metrics.onEnd(taskType, enqueuedAt, startedAt, futureTask.failed);
+            }
         }
 
         @Override
         public int compareTo(PriorityTask<?> other) {
-            return other.priority.ordinal() - this.priority.ordinal();
+            int byPriority = Integer.compare(this.priority.ordinal(), other.priority.ordinal());
+            if (byPriority != 0) {
+                return byPriority;
+            }
+            if (this.hasDeadline != other.hasDeadline) {
+                return this.hasDeadline ? -1 : 1;
+            }
+            if (this.hasDeadline) {
+                // nanoTime values must be compared by difference, not directly
+                long diff = this.deadlineNanos - other.deadlineNanos;
+                if (diff != 0) {
+                    return diff < 0 ? -1 : 1;
+                }
+            }
+            return Long.compare(this.sequence, other.sequence);
         }
 
         public Future<T> getFuture() {
@@ -59,6 +162,41 @@ public class EnhancedTaskExecutor {
         }
     }
 
+    // A bulkhead task in the pool queue only stands for a free worker; which compartment's task runs is up to DRR
+    private void dispatchBulkheads() {
+        var slot = bulkheads.pollOrPark();
+        while (slot != null) {
+            try {
+                slot.task().runDirect();
+            } finally {
+                slot = bulkheads.releaseAndPollParked(slot);
+            }
+        }
+    }
+
+    // FutureTask that can be completed exceptionally when its deadline passes before it starts
+    private static class DeadlineFutureTask<T> extends ObservableFutureTask<T> {
+        private boolean failed;
+
+        DeadlineFutureTask(Callable<T> callable) {
+            super(callable);
+        }
+
+        @Override
+        protected void setException(Throwable t) {
+            failed = true;
+            super.setException(t);
+        }
+
+        boolean shed() {
+            if (isDone()) {
+                return false;
+            }
+            setException(new TimeoutException("Deadline expired before the task started"));
+            return !isCancelled();
+        }
+    }
+
     // Thread factory with priority support
     private static class PriorityThreadFactory implements ThreadFactory {
         private final AtomicInteger counter = new AtomicInteger(0);
@@ -74,55 +212,188 @@ public class EnhancedTaskExecutor {
 
     // Submit task with priority
     public <T> Future<T> submit(Callable<T> task, Priority priority) {
-        PriorityTask<T> priorityTask = new PriorityTask<>(task, priority);
-        executor.execute(priorityTask);
+        return enqueue(new PriorityTask<>(task, priority, typeOf(task)));
+    }
+
+    // Submit task with priority, recorded in metrics under the given task type
+    public <T> Future<T> submit(String taskType, Callable<T> task, Priority priority) {
+        return enqueue(new PriorityTask<>(task, priority, taskType));
+    }
+
+    // Submit task with priority and a deadline; if it has not started once the deadline passes it is shed
+    // and its future fails with a TimeoutException
+    public <T> Future<T> submit(Callable<T> task, Priority priority, long deadline, TimeUnit unit) {
+        long deadlineNanos = System.nanoTime() + unit.toNanos(deadline);
+        return enqueue(new PriorityTask<>(task, priority, typeOf(task), deadlineNanos));
+    }
+
+    private <T> Future<T> enqueue(PriorityTask<T> priorityTask) {
+        if (metrics == null) {
+            executor.execute(priorityTask);
+            return priorityTask.getFuture();
+        }
+        priorityTask.enqueuedAt = metrics.onEnqueue();
+        try {
+            executor.execute(priorityTask);
+        } catch (RejectedExecutionException e) {
+            metrics.onRejected(priorityTask.taskType);
+            throw e;
+        }
+        return priorityTask.getFuture();
+    }
+
+    // Bulkhead compartments: per-tenant limits of running and queued tasks, scheduled fairly across tenants
+    public void registerCompartment(String name, int maxConcurrent, int maxQueued) {
+        registerCompartment(name, maxConcurrent, maxQueued, 1);
+    }
+
+    // quantum weights the compartment in the deficit round robin across compartments
+    public void registerCompartment(String name, int maxConcurrent, int maxQueued, int quantum) {
+        bulkheads.register(name, maxConcurrent, maxQueued, quantum);
+    }
+
+    // Shared slots a compartment may borrow once its own maxConcurrent is in use
+    public void setBulkheadOverflow(int slots) {
+        bulkheads.setOverflowCapacity(slots);
+    }
+
+    // Submit task to a compartment; throws BulkheadRejectedException with the reason when it does not fit
+    public <T> Future<T> submitTo(String compartment, Callable<T> task, Priority priority) {
+        PriorityTask<T> priorityTask = new PriorityTask<>(task, priority, compartment, compartment, false, 0L);
+        if (metrics != null) {
+            priorityTask.enqueuedAt = metrics.onEnqueue();
+        }
+        try {
+            bulkheads.admit(compartment, priorityTask);
+        } catch (BulkheadRejectedException e) {
+            if (metrics != null) {
+                metrics.onRejected(compartment);
+            }
+            throw e;
+        }
+        try {
+            executor.execute(priorityTask);
+        } catch (RejectedExecutionException e) {
+            if (bulkheads.remove(compartment, priorityTask)) {
+                if (metrics != null) {
+                    metrics.onRejected(compartment);
+                }
+                throw new BulkheadRejectedException(compartment, BulkheadRejectedException.Reason.SHUTDOWN);
+            }
+            // another worker already picked it up, using the dispatch owed to some other queued task
+            bulkheads.parkDispatch();
+        }
         return priorityTask.getFuture();
     }
 
-    // Progress tracking
+    public int getCompartmentRunning(String compartment) {
+        return bulkheads.running(compartment);
+    }
+
+    public int getCompartmentQueued(String compartment) {
+        return bulkheads.queued(compartment);
+    }
+
+    private String typeOf(Callable<?> task) {
+        return metrics == null ? null : ExecutorMetrics.typeOf(task);
+    }
+
+    // Tasks dropped because their deadline passed before they started
+    public long getShedCount() {
+        long total = 0;
+        for (int i = 0; i < shedCounts.length(); i++) {
+            total += shedCounts.get(i);
+        }
+        return total;
+    }
+
+    public long getShedCount(Priority priority) {
+        return shedCounts.get(priority.ordinal());
+    }
+
+    // Progress tracking; with a channel slot the worker only stores the value and delivery is throttled
     public static class ProgressTask<T> implements Callable<T> {
         private final Callable<T> actualTask;
         private final Consumer<Integer> progressListener;
+        private final ProgressChannel.Slot progressSlot;
         private final int totalSteps;
 
         public ProgressTask(Callable<T> task, Consumer<Integer> listener, int steps) {
+            this(task, listener, null, steps);
+        }
+
+        // Only through submitWithProgress, which closes the slot when the future completes; the task gets
+        // updateProgress as its step reporter
+        private ProgressTask(Function<IntConsumer, Callable<T>> task, ProgressChannel.Slot slot, int steps) {
+            this.progressListener = null;
+            this.progressSlot = slot;
+            this.totalSteps = steps;
+            this.actualTask = task.apply(this::updateProgress);
+        }
+
+        private ProgressTask(Callable<T> task, Consumer<Integer> listener, ProgressChannel.Slot slot, int steps) {
             this.actualTask = task;
             this.progressListener = listener;
+            this.progressSlot = slot;
             this.totalSteps = steps;
         }
 
         @Override
         public T call() throws Exception {
-            progressListener.accept(0);
+            report(0);
             T result = actualTask.call();
-            progressListener.accept(100);
+            report(100);
             return result;
         }
 
         public void updateProgress(int step) {
             int percent = (int) ((step / (float) totalSteps) * 100);
-            progressListener.accept(percent);
+            report(percent);
+        }
+
+        private void report(int percent) {
+            if (progressSlot != null) {
+                progressSlot.set(percent);
+            } else {
+                progressListener.accept(percent);
+            }
         }
     }
 
-    // Retry mechanism
+    // Retry mechanism, optionally guarded by a circuit breaker
     public static class RetryPolicy {
         private final int maxAttempts;
         private final long delayMs;
         private final Class<? extends Exception>[] retryableExceptions;
+        private final CircuitBreaker circuitBreaker;
 
         @SafeVarargs
         public RetryPolicy(int maxAttempts, long delayMs, Class<? extends Exception>... retryableExceptions) {
+            this(maxAttempts, delayMs, null, retryableExceptions);
+        }
+
+        private RetryPolicy(int maxAttempts, long delayMs, CircuitBreaker circuitBreaker,
+                            Class<? extends Exception>[] retryableExceptions) {
             this.maxAttempts = maxAttempts;
             this.delayMs = delayMs;
+            this.circuitBreaker = circuitBreaker;
             this.retryableExceptions = retryableExceptions;
         }
 
+        // Every attempt goes through the breaker; an open breaker ends the retries at once
+        public RetryPolicy withCircuitBreaker(CircuitBreaker breaker) {
+            return new RetryPolicy(maxAttempts, delayMs, breaker, retryableExceptions);
+        }
+
+        public CircuitBreaker getCircuitBreaker() {
+            return circuitBreaker;
+        }
+
         public <T> T execute(Callable<T> task) throws Exception {
             int attempts = 0;
             while (true) {
                 try {
-                    return task.call();
+                    return circuitBreaker == null ? task.call() : circuitBreaker.execute(task);
                 } catch (Exception e) {
                     if (!shouldRetry(e) || ++attempts >= maxAttempts) {
                         throw e;
@@ -133,6 +404,7 @@ public class EnhancedTaskExecutor {
         }
 
         private boolean shouldRetry(Exception e) {
+            if (e instanceof CircuitBreakerOpenException) return false;
             if (retryableExceptions.length == 0) return true;
             for (Class<? extends Exception> exType : retryableExceptions) {
                 if (exType.isInstance(e)) return true;
@@ -141,21 +413,240 @@ public class EnhancedTaskExecutor {
         }
     }
 
-    // Submit with retry policy
+    // Submit with retry policy; while the policy's breaker is open the task fails fast without taking a worker
     public <T> Future<T> submitWithRetry(Callable<T> task, RetryPolicy retryPolicy, Priority priority) {
+        var breaker = retryPolicy.getCircuitBreaker();
+        if (breaker != null && !breaker.isCallPermitted()) {
+            return CompletableFuture.failedFuture(new CircuitBreakerOpenException(breaker.getState()));
+        }
         return submit(() -> retryPolicy.execute(task), priority);
     }
 
-    // Get result with timeout
+    // Submit guarded by a circuit breaker; while it is open the task fails fast without taking a worker
+    public <T> Future<T> submit(Callable<T> task, Priority priority, CircuitBreaker breaker) {
+        if (!breaker.isCallPermitted()) {
+            return CompletableFuture.failedFuture(new CircuitBreakerOpenException(breaker.getState()));
+        }
+        return submit(() -> breaker.execute(task), priority);
+    }
+
+    // Hedging: run another copy of a slow task after a delay and keep whichever finishes first
+    public static class HedgePolicy {
+        private static final int MIN_SAMPLES = 100;
+        private static final int REFRESH_EVERY = 64;
+        private static final long CREDIT_PER_HEDGE = 1000;
+        private static final long MAX_BANKED_HEDGES = 10;
+
+        private final int maxHedges;
+        private final long creditPerRequest;
+        private final double percentile;
+        private final LatencyHistogram latencies;
+        private final AtomicLong credit = new AtomicLong();
+        private final AtomicLong hedgesLaunched = new AtomicLong();
+        private final AtomicInteger samples = new AtomicInteger();
+        private volatile long delayNanos;
+
+        private HedgePolicy(long delayNanos, double percentile, int maxHedges, double budgetPercent) {
+            this.delayNanos = delayNanos;
+            this.percentile = percentile;
+            this.latencies = percentile > 0 ? new LatencyHistogram() : null;
+            this.maxHedges = maxHedges;
+            this.creditPerRequest = Math.round(budgetPercent / 100.0 * CREDIT_PER_HEDGE);
+        }
+
+        // Hedge after a fixed delay; budgetPercent caps hedges at that share of requests
+        public static HedgePolicy fixedDelay(long delay, TimeUnit unit, int maxHedges, double budgetPercent) {
+            return new HedgePolicy(unit.toNanos(delay), 0, maxHedges, budgetPercent);
+        }
+
+        // Hedge after the live percentile (e.g. 95) of attempt latency, initialDelay until enough samples
+        public static HedgePolicy percentileDelay(double percentile, long initialDelay, TimeUnit unit,
+                                                  int maxHedges, double budgetPercent) {
+            return new HedgePolicy(unit.toNanos(initialDelay), percentile, maxHedges, budgetPercent);
+        }
+
+        public long getHedgesLaunched() {
+            return hedgesLaunched.get();
+        }
+
+        long delayNanos() {
+            return delayNanos;
+        }
+
+        void onRequest() {
+            credit.getAndUpdate(c -> Math.min(MAX_BANKED_HEDGES * CREDIT_PER_HEDGE, c + creditPerRequest));
+        }
+
+        boolean tryAcquireHedge() {
+            long current;
+            do {
+                current = credit.get();
+                if (current < CREDIT_PER_HEDGE) {
+                    return false;
+                }
+            } while (!credit.compareAndSet(current, current - CREDIT_PER_HEDGE));
+            hedgesLaunched.incrementAndGet();
+            return true;
+        }
+
+        void recordLatency(long nanos) {
+            if (latencies == null) {
+                return;
+            }
+            latencies.record(nanos);
+            var count = samples.incrementAndGet();
+            if (count >= MIN_SAMPLES && count % REFRESH_EVERY == 0) {
+                delayNanos = latencies.percentile(percentile, TimeUnit.NANOSECONDS);
+            }
+        }
+    }
+
+    // Submit with hedging; losing attempts are cancelled, the result fails only when every attempt failed
+    public <T> CompletableFuture<T> submitHedged(Callable<T> task, Priority priority, HedgePolicy policy) {
+        if (executor.isShutdown()) {
+            throw new RejectedExecutionException("Executor has been shut down");
+        }
+        var request = new HedgedRequest<>(task, priority, policy);
+        policy.onRequest();
+        launchAttempt(request);
+        scheduleHedge(request, policy.maxHedges);
+        request.result.whenComplete((value, error) -> request.attempts.forEach(f -> f.cancel(true)));
+        return request.result;
+    }
+
+    // One hedged call: its attempts, how many of them may still complete it, and the latency of the first success
+    private static class HedgedRequest<T> {
+        private static final long NONE = -1;
+
+        private final Callable<T> task;
+        private final Priority priority;
+        private final HedgePolicy policy;
+        private final CompletableFuture<T> result = new CompletableFuture<>();
+        private final List<Future<T>> attempts = new CopyOnWriteArrayList<>();
+        private final AtomicInteger outstanding = new AtomicInteger();
+        private final AtomicLong winnerNanos = new AtomicLong(NONE);
+
+        HedgedRequest(Callable<T> task, Priority priority, HedgePolicy policy) {
+            this.task = task;
+            this.priority = priority;
+            this.policy = policy;
+        }
+
+        void succeeded(T value, long elapsedNanos) {
+            // claimed before completing, so losers cancelled by the completion see it
+            winnerNanos.compareAndSet(NONE, elapsedNanos);
+            policy.recordLatency(elapsedNanos);
+            result.complete(value);
+        }
+
+        /*
+         * Runs once per attempt, whether it ran, failed, or was cancelled or shed
+         * before it started. Only failures count down, so the result fails when the
+         * last attempt does. An attempt cancelled while running is recorded at its
+         * elapsed time, and at least the winner's: a copy of the same work still
+         * running when the winner finished was no faster. Without these censored
+         * samples the percentile would only see winners and drift down.
+         */
+        void attemptDone(Future<T> attempt, long startedAt) {
+            if (attempt.isCancelled()) {
+                if (startedAt != NONE) {
+                    policy.recordLatency(Math.max(System.nanoTime() - startedAt, winnerNanos.get()));
+                }
+                failed(new CancellationException("Hedged attempt cancelled"));
+                return;
+            }
+            try {
+                attempt.get();
+            } catch (ExecutionException e) {
+                failed(e.getCause());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        void failed(Throwable error) {
+            if (outstanding.decrementAndGet() == 0) {
+                result.completeExceptionally(error);
+            }
+        }
+    }
+
+    private <T> void launchAttempt(HedgedRequest<T> request) {
+        request.outstanding.incrementAndGet();
+        var startedAt = new AtomicLong(HedgedRequest.NONE);
+        Callable<T> attempt = () -> {
+            var start = System.nanoTime();
+            startedAt.set(start);
+            T value = request.task.call();
+            request.succeeded(value, System.nanoTime() - start);
+            return value;
+        };
+        var priorityTask = new PriorityTask<>(attempt, request.priority, typeOf(request.task));
+        try {
+            enqueue(priorityTask);
+        } catch (RejectedExecutionException e) {
+            request.failed(e);
+            return;
+        }
+        var future = priorityTask.futureTask;
+        future.whenDone(() -> request.attemptDone(future, startedAt.get()));
+        request.attempts.add(future);
+        // the result may have completed while this attempt was being submitted
+        if (request.result.isDone()) {
+            request.attempts.forEach(f -> f.cancel(true));
+        }
+    }
+
+    private <T> void scheduleHedge(HedgedRequest<T> request, int hedgesLeft) {
+        if (hedgesLeft == 0 || request.result.isDone()) {
+            return;
+        }
+        var current = timer();
+        HashedWheelTimer.Timeout hedge;
+        try {
+            hedge = current.schedule(() -> {
+                if (request.result.isDone() || !request.policy.tryAcquireHedge()) {
+                    return;
+                }
+                launchAttempt(request);
+                scheduleHedge(request, hedgesLeft - 1);
+            }, request.policy.delayNanos(), TimeUnit.NANOSECONDS);
+        } catch (IllegalStateException e) {
+            // shut down meanwhile: no more hedges, the attempts already launched still complete the result
+            return;
+        }
+        request.result.whenComplete((value, error) -> hedge.cancel());
+    }
+
+    // Timing wheel for the hedge delays: O(1) schedule and cancel, most hedges are cancelled early.
+    // One per executor, started on first use and stopped by shutdown
+    private HashedWheelTimer timer() {
+        var current = timer;
+        if (current == null) {
+            synchronized (this) {
+                current = timer;
+                if (current == null) {
+                    timer = current = new HashedWheelTimer(TIMER_TICK_MILLIS, TimeUnit.MILLISECONDS, TIMER_WHEEL_SIZE);
+                    if (executor.isShutdown()) {
+                        // first use racing shutdown, which found no timer to stop
+                        current.stop();
+                    }
+                }
+            }
+        }
+        return current;
+    }
+
+    // Get result with timeout; a task still running when the timeout expires is cancelled
     public <T> Optional<T> getResult(Future<T> future, long timeout, TimeUnit unit)
             throws InterruptedException {
         try {
             return Optional.ofNullable(future.get(timeout, unit));
-        } catch (ExecutionException e) {
-            return Optional.empty();
         } catch (TimeoutException e) {
             future.cancel(true);
             return Optional.empty();
+        } catch (ExecutionException | CancellationException e) {
+            return Optional.empty();
         }
     }
 
@@ -170,14 +661,63 @@ public class EnhancedTaskExecutor {
         return submit(progressTask, priority);
     }
 
+    // Progress reported through a channel slot, e.g. channel.open(listener) or group.open(); the task is
+    // built around a step reporter, and each step it reports out of totalSteps is stored in the slot as a
+    // percentage. The slot is closed when the future completes, also when the task is cancelled or shed
+    // before it runs
+    public <T> Future<T> submitWithProgress(
+            Function<IntConsumer, Callable<T>> task,
+            ProgressChannel.Slot progressSlot,
+            int totalSteps,
+            Priority priority
+    ) {
+        ProgressTask<T> progressTask = new ProgressTask<>(task, progressSlot, totalSteps);
+        var priorityTask = new PriorityTask<>(progressTask, priority, typeOf(progressTask));
+        try {
+            enqueue(priorityTask);
+        } catch (RejectedExecutionException e) {
+            progressSlot.close();
+            throw e;
+        }
+        priorityTask.futureTask.whenDone(progressSlot::close);
+        return priorityTask.getFuture();
+    }
+
     // Graceful shutdown
     public void shutdown(long timeout, TimeUnit unit) throws InterruptedException {
         executor.shutdown();
+        stopTimer();
         executor.awaitTermination(timeout, unit);
     }
 
-    // Forceful shutdown
+    // Forceful shutdown; returns the futures of the tasks that never started, which metrics count as dropped
     public List<Runnable> shutdownNow() {
-        return executor.shutdownNow();
+        var drainedTasks = executor.shutdownNow();
+        stopTimer();
+        var remaining = new ArrayList<Runnable>();
+        for (var drained : drainedTasks) {
+            var priorityTask = (PriorityTask<?>) drained;
+            // a bulkhead task in the pool queue only stands for a dispatch; its task is drained from the bulkheads
+            if (priorityTask.compartment == null) {
+                dropped(priorityTask, remaining);
+            }
+        }
+        for (var queued : bulkheads.drainQueued()) {
+            dropped(queued, remaining);
+        }
+        return remaining;
+    }
+
+    private void dropped(PriorityTask<?> priorityTask, List<Runnable> remaining) {
+        if (metrics != null) {
+            metrics.onDropped(priorityTask.taskType);
+        }
+        remaining.add(priorityTask.futureTask);
+    }
+
+    private synchronized void stopTimer() {
+        if (timer != null) {
+            timer.stop();
+        }
     }
 }
\ No newline at end of file
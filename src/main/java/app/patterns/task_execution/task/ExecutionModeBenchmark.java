@@ -0,0 +1,71 @@
+package app.patterns.task_execution.task;
+
+import app.patterns.task_execution.BackgroundTaskExecutor;
+import app.patterns.task_execution.ExecutionMode;
+import app.patterns.task_execution.SemaphoreBoundedExecutor;
+
+import java.util.ArrayList;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/*
+ * Throughput of 10k concurrent blocking tasks on platform pools versus a
+ * virtual thread per task. Dummy benchmark, run it on your machine.
+ */
+public class ExecutionModeBenchmark {
+
+    private static final int TASKS = 10_000;
+    private static final int POOL_SIZE = 200;
+    private static final long BLOCKING_MILLIS = 50;
+
+    private static final Callable<Integer> BLOCKING_TASK = () -> {
+        Thread.sleep(BLOCKING_MILLIS);
+        return 1;
+    };
+
+    public static void main(String[] args) throws Exception {
+        System.out.println("Virtual threads available: " + SemaphoreBoundedExecutor.VIRTUAL_THREADS_AVAILABLE);
+        for (int round = 0; round < 2; round++) {
+            benchmarkBackground("Background PLATFORM(" + POOL_SIZE + ")", POOL_SIZE, ExecutionMode.PLATFORM);
+            benchmarkBackground("Background VIRTUAL(" + TASKS + ")", TASKS, ExecutionMode.VIRTUAL);
+            benchmarkEnhanced("Enhanced PLATFORM(" + POOL_SIZE + ")", POOL_SIZE, ExecutionMode.PLATFORM);
+            benchmarkEnhanced("Enhanced VIRTUAL(" + TASKS + ")", TASKS, ExecutionMode.VIRTUAL);
+            System.out.println("######\n");
+        }
+    }
+
+    private static void benchmarkBackground(String name, int limit, ExecutionMode mode) throws Exception {
+        var executor = new BackgroundTaskExecutor(limit, mode);
+        var before = System.nanoTime();
+        var futures = new ArrayList<Future<Integer>>(TASKS);
+        for (int i = 0; i < TASKS; i++) {
+            futures.add(executor.execute(BLOCKING_TASK));
+        }
+        for (var future : futures) {
+            future.get();
+        }
+        report(name, System.nanoTime() - before);
+        executor.shutdownTasks(10, TimeUnit.SECONDS, (e, ex) -> ex.printStackTrace());
+    }
+
+    private static void benchmarkEnhanced(String name, int limit, ExecutionMode mode) throws Exception {
+        var executor = new EnhancedTaskExecutor(limit, mode);
+        var before = System.nanoTime();
+        var futures = new ArrayList<Future<Integer>>(TASKS);
+        for (int i = 0; i < TASKS; i++) {
+            futures.add(executor.submit(BLOCKING_TASK, EnhancedTaskExecutor.Priority.NORMAL));
+        }
+        for (var future : futures) {
+            future.get();
+        }
+        report(name, System.nanoTime() - before);
+        executor.shutdown(10, TimeUnit.SECONDS);
+    }
+
+    private static void report(String name, long elapsedNanos) {
+        var millis = TimeUnit.NANOSECONDS.toMillis(elapsedNanos);
+        var throughput = TASKS * 1_000_000_000L / Math.max(1, elapsedNanos);
+        System.out.println(name + ": " + millis + " ms, " + throughput + " tasks/s");
+    }
+}
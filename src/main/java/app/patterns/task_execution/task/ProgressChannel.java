@@ -0,0 +1,152 @@
+package app.patterns.task_execution.task;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Throttled progress reporting. A worker only stores its latest percentage in a
+ * slot; a dispatcher thread reads the slots every interval and calls listeners
+ * only for values that changed, so a task with a million steps still produces at
+ * most one listener call per interval. Groups report the average progress of
+ * their slots.
+ */
+public class ProgressChannel implements AutoCloseable {
+
+    private static final int NOT_STARTED = -1;
+
+    public static class Slot {
+        private final AtomicInteger value = new AtomicInteger(NOT_STARTED);
+        private final Consumer<Integer> listener;
+        private volatile boolean closed;
+        private int delivered = NOT_STARTED;
+
+        private Slot(Consumer<Integer> listener) {
+            this.listener = listener;
+        }
+
+        // Release store, no fence or listener call on the worker thread
+        public void set(int percent) {
+            value.lazySet(percent);
+        }
+
+        // Marks the last value; it is still delivered before the slot is dropped
+        public void close() {
+            closed = true;
+        }
+    }
+
+    public class Group {
+        private final List<Slot> members = new CopyOnWriteArrayList<>();
+        private final Consumer<Integer> listener;
+        private volatile boolean closed;
+        private int delivered = NOT_STARTED;
+
+        private Group(Consumer<Integer> listener) {
+            this.listener = listener;
+        }
+
+        // Slot counted in the group aggregate only
+        public Slot open() {
+            return open(null);
+        }
+
+        // Slot counted in the group aggregate that also reports to its own listener
+        public Slot open(Consumer<Integer> slotListener) {
+            var slot = slotListener == null ? new Slot(null) : ProgressChannel.this.open(slotListener);
+            members.add(slot);
+            return slot;
+        }
+
+        // No more slots will join; the group is dropped once all its slots are closed
+        public void close() {
+            closed = true;
+        }
+    }
+
+    private final List<Slot> slots = new CopyOnWriteArrayList<>();
+    private final List<Group> groups = new CopyOnWriteArrayList<>();
+    private final ScheduledExecutorService dispatcher;
+
+    public ProgressChannel(long interval, TimeUnit unit) {
+        this.dispatcher = Executors.newSingleThreadScheduledExecutor(r -> {
+            var thread = new Thread(r, "ProgressDispatcher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        dispatcher.scheduleAtFixedRate(this::dispatch, interval, interval, unit);
+    }
+
+    public Slot open(Consumer<Integer> listener) {
+        var slot = new Slot(listener);
+        slots.add(slot);
+        return slot;
+    }
+
+    public Group openGroup(Consumer<Integer> aggregateListener) {
+        var group = new Group(aggregateListener);
+        groups.add(group);
+        return group;
+    }
+
+    // Delivers the last values and stops the dispatcher
+    @Override
+    public void close() {
+        dispatcher.shutdown();
+        try {
+            dispatcher.awaitTermination(1, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        dispatch();
+    }
+
+    private synchronized void dispatch() {
+        for (var slot : slots) {
+            // read closed before the value, so a closed slot's value is its final one
+            var closed = slot.closed;
+            var current = slot.value.get();
+            if (current != slot.delivered) {
+                slot.delivered = current;
+                deliver(slot.listener, current);
+            }
+            if (closed) {
+                slots.remove(slot);
+            }
+        }
+        for (var group : groups) {
+            var closed = group.closed;
+            var allSlotsClosed = true;
+            var sum = 0L;
+            for (var member : group.members) {
+                allSlotsClosed &= member.closed;
+                sum += Math.max(0, member.value.get());
+            }
+            var aggregate = group.members.isEmpty() ? NOT_STARTED : (int) (sum / group.members.size());
+            if (aggregate != group.delivered) {
+                group.delivered = aggregate;
+                deliver(group.listener, aggregate);
+            }
+            if (closed && allSlotsClosed) {
+                groups.remove(group);
+            }
+        }
+    }
+
+    private static void deliver(Consumer<Integer> listener, int percent) {
+        if (listener == null || percent == NOT_STARTED) {
+            return;
+        }
+        try {
+            listener.accept(percent);
+        } catch (RuntimeException | Error e) {
+            // a failing listener must not stop the dispatcher, whose later runs would be suppressed
+            var current = Thread.currentThread();
+            current.getUncaughtExceptionHandler().uncaughtException(current, e);
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package app.patterns.task_execution.task;
+
+import app.patterns.task_execution.WorkStealingExecutor;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/*
+ * Task graphs where every task forks its children into the same executor:
+ * a balanced binary tree and a lopsided one where each node forks a leaf and the
+ * rest of the spine. WorkStealingExecutor versus a fixed ThreadPoolExecutor and
+ * a ForkJoinPool. Dummy benchmark, run it on your machine.
+ */
+public class WorkStealingBenchmark {
+
+    private static final int TREE_DEPTH = 18;
+    private static final int SPINE_LENGTH = 200_000;
+    private static final int LEAF_WORK = 200;
+
+    // Counts outstanding tasks of one graph; the last one to finish releases the caller
+    private static class Graph {
+        private final ExecutorService executor;
+        private final AtomicLong pending = new AtomicLong(1);
+        private final CountDownLatch done = new CountDownLatch(1);
+        private final AtomicLong checksum = new AtomicLong();
+
+        Graph(ExecutorService executor) {
+            this.executor = executor;
+        }
+
+        void fork(Runnable task) {
+            pending.incrementAndGet();
+            executor.execute(() -> {
+                task.run();
+                finish();
+            });
+        }
+
+        void finish() {
+            if (pending.decrementAndGet() == 0) {
+                done.countDown();
+            }
+        }
+
+        void leaf(long seed) {
+            var x = seed;
+            for (int i = 0; i < LEAF_WORK; i++) {
+                x = x * 6364136223846793005L + 1442695040888963407L;
+            }
+            checksum.addAndGet(x & 1);
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        var cores = Runtime.getRuntime().availableProcessors();
+        System.out.println("Cores: " + cores);
+        for (int round = 0; round < 3; round++) {
+            benchmark("WorkStealingExecutor", () -> new WorkStealingExecutor(cores));
+            benchmark("ThreadPoolExecutor", () -> Executors.newFixedThreadPool(cores));
+            benchmark("ForkJoinPool", () -> new ForkJoinPool(cores));
+            System.out.println("######\n");
+        }
+    }
+
+    private static void benchmark(String name, Supplier<ExecutorService> factory) throws Exception {
+        var executor = factory.get();
+        report(name + " balanced tree", 2L << TREE_DEPTH, run(executor, graph -> tree(graph, TREE_DEPTH, 1)));
+        report(name + " spine", 2L * SPINE_LENGTH, run(executor, graph -> spine(graph, SPINE_LENGTH)));
+        if (executor instanceof WorkStealingExecutor) {
+            System.out.println(name + " steals: " + ((WorkStealingExecutor) executor).getStealCount());
+        }
+        executor.shutdown();
+        executor.awaitTermination(10, TimeUnit.SECONDS);
+    }
+
+    private static long run(ExecutorService executor, Consumer<Graph> root) throws Exception {
+        var graph = new Graph(executor);
+        var before = System.nanoTime();
+        graph.fork(() -> root.accept(graph));
+        graph.finish();
+        graph.done.await();
+        return System.nanoTime() - before;
+    }
+
+    private static void tree(Graph graph, int depth, long id) {
+        if (depth == 0) {
+            graph.leaf(id);
+            return;
+        }
+        graph.fork(() -> tree(graph, depth - 1, id * 2));
+        graph.fork(() -> tree(graph, depth - 1, id * 2 + 1));
+    }
+
+    private static void spine(Graph graph, int remaining) {
+        if (remaining == 0) {
+            return;
+        }
+        graph.fork(() -> graph.leaf(remaining));
+        graph.fork(() -> spine(graph, remaining - 1));
+    }
+
+    private static void report(String name, long tasks, long elapsedNanos) {
+        var millis = TimeUnit.NANOSECONDS.toMillis(elapsedNanos);
+        var throughput = tasks * 1_000_000_000L / Math.max(1, elapsedNanos);
+        System.out.println(name + ": " + millis + " ms, " + throughput + " tasks/s");
+    }
+}